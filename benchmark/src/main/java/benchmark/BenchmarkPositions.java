@@ -0,0 +1,94 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * The positions the benchmarks run on, drawn the same way ChessBoard.toString prints a board.
+ */
+public enum BenchmarkPositions {
+    START(TeamColor.WHITE, """
+            |r|n|b|q|k|b|n|r|
+            |p|p|p|p|p|p|p|p|
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            |P|P|P|P|P|P|P|P|
+            |R|N|B|Q|K|B|N|R|
+            """),
+    // "Position 6" from the Chess Programming Wiki
+    MIDDLEGAME(TeamColor.WHITE, """
+            |r| | | | |r|k| |
+            | |p|p| |q|p|p|p|
+            |p| |n|p| |n| | |
+            | | |b| |p| |B| |
+            | | |B| |P| |b| |
+            |P| |N|P| |N| | |
+            | |P|P| |Q|P|P|P|
+            |R| | | | |R|K| |
+            """),
+    // "Position 3" from the Chess Programming Wiki
+    ENDGAME(TeamColor.WHITE, """
+            | | | | | | | | |
+            | | |p| | | | | |
+            | | | |p| | | | |
+            |K|P| | | | | |r|
+            | |R| | | |p| |k|
+            | | | | | | | | |
+            | | | | |P| |P| |
+            | | | | | | | | |
+            """);
+
+    private final TeamColor sideToMove;
+    private final String diagram;
+
+    BenchmarkPositions(TeamColor sideToMove, String diagram) {
+        this.sideToMove = sideToMove;
+        this.diagram = diagram;
+    }
+
+    public TeamColor sideToMove() {
+        return sideToMove;
+    }
+
+    public ChessBoard board() {
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int col = 1;
+        for (char c : diagram.toCharArray()) {
+            switch (c) {
+                case '\n' -> {
+                    row--;
+                    col = 1;
+                }
+                case ' ' -> col++;
+                case '|' -> {}
+                default -> {
+                    TeamColor color = Character.isUpperCase(c) ? TeamColor.WHITE : TeamColor.BLACK;
+                    ChessPiece.PieceType type = switch (Character.toLowerCase(c)) {
+                        case 'k' -> ChessPiece.PieceType.KING;
+                        case 'q' -> ChessPiece.PieceType.QUEEN;
+                        case 'r' -> ChessPiece.PieceType.ROOK;
+                        case 'b' -> ChessPiece.PieceType.BISHOP;
+                        case 'n' -> ChessPiece.PieceType.KNIGHT;
+                        default -> ChessPiece.PieceType.PAWN;
+                    };
+                    board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, type));
+                    col++;
+                }
+            }
+        }
+        return board;
+    }
+
+    public ChessGame game() {
+        ChessGame game = new ChessGame();
+        game.setBoard(board());
+        game.setPlayerTurn(sideToMove);
+        return game;
+    }
+}
@@ -0,0 +1,105 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.chessRules.ChessRules;
+import chess.chessRules.PackedMove;
+import chess.chessRules.Perft;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation throughput on the shared rules engine. Each benchmark adds the nodes (positions or moves) it
+ * produced to the Nodes counter, which JMH reports as a rate next to the usual ops/s, i.e. nodes per second.
+ * <p>
+ * Run with: java -jar benchmark/target/benchmark-jar-with-dependencies.jar
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    @Param({"START", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    @Param({"4"})
+    public int depth;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private TeamColor sideToMove;
+    private ChessPosition[] piecePositions;
+    private final ChessRules rules = new ChessRules();
+    private final Perft perft = new Perft();
+    private final int[] moves = new int[PackedMove.MAX_MOVES];
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = position.game();
+        board = game.getBoard();
+        sideToMove = position.sideToMove();
+
+        long pieces = board.getTeamPieces(sideToMove);
+        piecePositions = new ChessPosition[Long.bitCount(pieces)];
+        for (int i = 0; pieces != 0; pieces &= pieces - 1, i++) {
+            piecePositions[i] = ChessPosition.fromSquare(Long.numberOfTrailingZeros(pieces));
+        }
+    }
+
+    /**
+     * Legal move tree to a fixed depth: generation plus make/unmake, counted in leaf nodes.
+     */
+    @Benchmark
+    public void perft(Nodes nodes) {
+        nodes.nodes += perft.perft(board, sideToMove, depth);
+    }
+
+    /**
+     * The public ChessGame.validMoves API, once per piece of the side to move, counted in moves returned.
+     */
+    @Benchmark
+    public void validMovesPerPiece(Nodes nodes, Blackhole blackhole) {
+        for (ChessPosition piecePosition : piecePositions) {
+            Collection<ChessMove> validMoves = game.validMoves(piecePosition);
+            nodes.nodes += validMoves.size();
+            blackhole.consume(validMoves);
+        }
+    }
+
+    /**
+     * Every legal move of the side to move into a packed buffer, counted in moves generated.
+     */
+    @Benchmark
+    public void legalMoves(Nodes nodes) {
+        nodes.nodes += rules.validMoves(board, sideToMove, moves, 0);
+    }
+
+    /**
+     * Every pseudo-legal move of the side to move into a packed buffer, with no legality filtering, counted in
+     * moves generated.
+     */
+    @Benchmark
+    public void pseudoLegalMoves(Nodes nodes) {
+        nodes.nodes += rules.pseudoLegalMoves(board, sideToMove, moves, 0);
+    }
+}
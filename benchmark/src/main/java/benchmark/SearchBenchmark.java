@@ -0,0 +1,46 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth searches with the engine. The Nodes counter gives the search's nodes per second, including
+ * quiescence nodes, which is the figure to size bot hardware by.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"START", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    @Param({"5"})
+    public int depth;
+
+    private ChessBoard board;
+    private TeamColor sideToMove;
+    private final Search search = new Search();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = position.board();
+        sideToMove = position.sideToMove();
+    }
+
+    @Benchmark
+    public SearchResult search(MoveGenerationBenchmark.Nodes nodes) {
+        SearchResult result = search.search(board, sideToMove, SearchLimits.depth(depth));
+        nodes.nodes += result.nodes();
+        return result;
+    }
+}
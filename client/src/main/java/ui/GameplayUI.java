@@ -163,7 +163,7 @@ public class GameplayUI extends UI implements GameplayHandler {
         // Return the valid position
         int col = validCols.indexOf(userEntry.charAt(0)) + 1;
         int row = validRows.indexOf(userEntry.charAt(1)) + 1;
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
     private ChessPiece.PieceType getPromotionType(ChessMove move) {
@@ -290,7 +290,7 @@ public class GameplayUI extends UI implements GameplayHandler {
         List<Integer> cols = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8);
         if (orientation.equals(TeamColor.BLACK)) cols = cols.reversed();
         for (Integer col : cols) {
-            ChessPosition position = new ChessPosition(row, col);
+            ChessPosition position = ChessPosition.of(row, col);
             ChessPiece piece = game.getBoard().getPiece(position);
             boolean highlight = highlightedPositions != null && highlightedPositions.contains(position);
             printBoardPiece(row, col, piece, highlight);
@@ -0,0 +1,28 @@
+import chess.engine.OpeningBookBuilder;
+import dataAccess.DataAccessException;
+import dataAccess.game.GameDAO;
+import dataAccess.game.GameDAOmySQL;
+import model.GameData;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Builds an opening book from every game stored in the database.
+ * Usage: BuildBook [book file, default book.bin] [moves per game, default OpeningBookBuilder.DEFAULT_MAX_PLY]
+ */
+public class BuildBook {
+    public static void main(String[] args) throws DataAccessException, IOException {
+        Path bookPath = Path.of(args.length > 0 ? args[0] : "book.bin");
+        int maxPly = args.length > 1 ? Integer.parseInt(args[1]) : OpeningBookBuilder.DEFAULT_MAX_PLY;
+
+        // listGames leaves out the game data, so fetch each game in full
+        GameDAO gameDAO = new GameDAOmySQL();
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPly);
+        for (GameData listed : gameDAO.listGames()) {
+            builder.addGame(gameDAO.getGame(listed.gameID()).game());
+        }
+        builder.write(bookPath);
+        System.out.println("Wrote " + builder.size() + " entries from " + builder.getGames() + " games to " + bookPath);
+    }
+}
@@ -1,5 +1,6 @@
 package server;
 
+import chess.bitbase.Bitbases;
 import com.google.gson.Gson;
 import dataAccess.*;
 import dataAccess.auth.AuthDAO;
@@ -16,17 +17,32 @@ import handler.GameHandler;
 import handler.UserHandler;
 import spark.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
 
 public class Server {
+    // System property naming the directory of the endgame bitbases; unset leaves simple endings to be played out
+    private static final String BITBASES_PROPERTY = "chess.bitbases";
+
     private final GameHandler gameHandler;
     private final UserHandler userHandler;
+    private final Bitbases bitbases;
     private enum DatabaseType {
         MEMORY,
         MYSQL
     }
 
     public Server() {
+        this(null);
+    }
+
+    /**
+     * @param bitbases decide the games that reach the endings they cover, or null to leave those to be played out
+     */
+    public Server(Bitbases bitbases) {
+        this.bitbases = bitbases;
+
         // Create DAOs that will be shared by everyone
         AuthDAO authDAO = null;
         GameDAO gameDAO = null;
@@ -54,7 +70,7 @@ public class Server {
     }
 
     public static void main(String[] args) {
-        Server server = new Server();
+        Server server = new Server(loadBitbases(System.getProperty(BITBASES_PROPERTY)));
         int port = server.run(8080);
         System.out.println("Started HTTP server on " + port);
     }
@@ -65,7 +81,7 @@ public class Server {
         Spark.staticFiles.location("web"); // Website setup
 
         // Register websocket upgrade endpoint
-        Spark.webSocket("/connect", WebSocketServer.class);
+        Spark.webSocket("/connect", new WebSocketServer(bitbases));
 
         // Register endpoints
         Spark.delete("/db", this::clearDatabase);
@@ -83,6 +99,22 @@ public class Server {
         return Spark.port();
     }
 
+    /**
+     * Opens the bitbases in the configured directory, generating the files there the first time, which takes a few
+     * seconds.
+     *
+     * @return null if no directory is configured or the files can't be read or written
+     */
+    private static Bitbases loadBitbases(String directory) {
+        if (directory == null || directory.isBlank()) return null;
+        try {
+            return Bitbases.open(Path.of(directory));
+        } catch (IOException e) {
+            System.out.println("Endgame bitbases unavailable, simple endings will be played out: " + e.getMessage());
+            return null;
+        }
+    }
+
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
@@ -1,7 +1,9 @@
 package server;
 
 import chess.*;
+import chess.ChessGame.GameStatus;
 import chess.ChessGame.TeamColor;
+import chess.bitbase.Bitbases;
 import chess.ChessPiece.PieceType;
 import com.google.gson.Gson;
 import dataAccess.auth.AuthDAO;
@@ -29,7 +31,13 @@ public class WebSocketServer {
     private final UserService userService;
     private final GameService gameService;
     private final WebSocketSessions webSocketSessions = new WebSocketSessions();
-    public WebSocketServer() {
+    private final Bitbases bitbases;
+
+    /**
+     * @param bitbases end the games that reach the endings they decide, or null to leave those to be played out
+     */
+    public WebSocketServer(Bitbases bitbases) {
+        this.bitbases = bitbases;
         AuthDAO authDAO = new AuthDAOmySQL();
         UserDAO userDAO = new UserDAOmySQL();
         GameDAO gameDAO = new GameDAOmySQL();
@@ -153,9 +161,7 @@ public class WebSocketServer {
         broadcastMessage(command.getGameID(), new NotificationMessage(broadcastMessage), session);
 
         // Check for check, checkmate, or stalemate...
-        if (validateCheckmate(session, gameData)) return;
-        if (validateStalemate(session, gameData)) return;
-        validateCheck(gameData);
+        announceGameStatus(session, gameData);
     }
 
     private void onResignCommand(Session session, String resignCommandJson) {
@@ -263,35 +269,58 @@ public class WebSocketServer {
         return false;
     }
 
-    private void validateCheck(GameData gameData) {
-        TeamColor playerTurn = gameData.game().getPlayerTurn();
-        if (gameData.game().isInCheck(playerTurn)) {
-            String message = playerTurn + " player is in check.";
-            broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
-        }
-    }
-
-    private boolean validateStalemate(Session session, GameData gameData) {
-        TeamColor playerTurn = gameData.game().getPlayerTurn();
-        if (gameData.game().isInStalemate(playerTurn)) {
-            String message = playerTurn + " player has no available moves. Stalemate. Game over.";
-            broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
-            markGameOver(session, gameData);
-            return true;
-        }
-        return false;
-    }
-
-    private boolean validateCheckmate(Session session, GameData gameData) {
+    private void announceGameStatus(Session session, GameData gameData) {
+        // One pass over the legal moves tells check, checkmate and stalemate apart; the other endings come from the
+        // game's position history, material signature and endgame bitbases, with no search
+        gameData.game().setBitbases(bitbases);
         TeamColor playerTurn = gameData.game().getPlayerTurn();
-        TeamColor otherPlayerColor = playerTurn.equals(TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        if (gameData.game().isInCheckmate(playerTurn)) {
-            String message = playerTurn + " player is in checkmate. " + otherPlayerColor + " player has won!";
-            broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
-            markGameOver(session, gameData);
-            return true;
+        GameStatus status = gameData.game().getGameStatus();
+        switch (status) {
+            case CHECKMATE -> {
+                String message = playerTurn + " player is in checkmate. " + playerTurn.opponent() + " player has won!";
+                broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
+                markGameOver(session, gameData);
+            }
+            case STALEMATE -> {
+                String message = playerTurn + " player has no available moves. Stalemate. Game over.";
+                broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
+                markGameOver(session, gameData);
+            }
+            case THREEFOLD_REPETITION -> {
+                String message = "The same position has come up three times. Draw. Game over.";
+                broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
+                markGameOver(session, gameData);
+            }
+            case FIFTY_MOVE_RULE -> {
+                String message = "50 moves without a capture or pawn move. Draw. Game over.";
+                broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
+                markGameOver(session, gameData);
+            }
+            case DEAD_POSITION -> {
+                String message = "Neither player has enough pieces left to checkmate. Draw. Game over.";
+                broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
+                markGameOver(session, gameData);
+            }
+            case KNOWN_WIN, KNOWN_LOSS -> {
+                // Only comes up right after the capture or pawn move that entered the ending, with all fifty moves
+                // left to force the mate, so the fifty-move rule can't draw the game instead
+                TeamColor winner = status == GameStatus.KNOWN_WIN ? playerTurn : playerTurn.opponent();
+                String message = winner + " player can force checkmate within fifty moves. " + winner
+                        + " player has won!";
+                broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
+                markGameOver(session, gameData);
+            }
+            case KNOWN_DRAW -> {
+                String message = "Neither player can force a win in this ending. Draw. Game over.";
+                broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
+                markGameOver(session, gameData);
+            }
+            case CHECK -> {
+                String message = playerTurn + " player is in check.";
+                broadcastMessage(gameData.gameID(), new NotificationMessage(message), null);
+            }
+            case NORMAL -> {}
         }
-        return false;
     }
 
     /*
@@ -1,5 +1,11 @@
 package chess;
 
+import chess.chessRules.Attacks;
+import chess.chessRules.Material;
+import chess.chessRules.PackedMove;
+import chess.chessRules.PieceSquareTables;
+import chess.chessRules.Zobrist;
+
 import java.util.Arrays;
 import java.util.HashMap;
 
@@ -13,8 +19,108 @@ public class ChessBoard {
 
     private final ChessPiece[][] board;
 
+    /**
+     * Castling rights, as bits of getCastlingRights()
+     */
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING_RIGHTS = 15;
+
+    // What the pieces alone don't say about a position, packed in one int: castling rights (bits 0-3), en passant
+    // target square plus one (bits 4-10, 0 for none) and the halfmove clock (bits 11-23). Undo records keep only
+    // its low 24 bits. Not transient, so a saved game keeps it.
+    private int state;
+    private static final int CASTLING_MASK = 0xF;
+    private static final int EN_PASSANT_SHIFT = 4;
+    private static final int EN_PASSANT_MASK = 0x7F;
+    private static final int HALFMOVE_SHIFT = 11;
+    private static final int HALFMOVE_MASK = 0x1FFF;
+
+    // The largest halfmove clock a board can hold; Fen rejects larger ones
+    public static final int MAX_HALFMOVE_CLOCK = HALFMOVE_MASK;
+
+    // Castling rights that survive a move from or to each square: moving a King or Rook, or capturing a Rook on its
+    // home square, loses the rights that piece was needed for
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING_RIGHTS);
+        CASTLING_KEPT[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] &= ~BLACK_KINGSIDE;
+    }
+
+    // Bitboard view of the grid above: one bit per square, bit 0 = a1 through bit 63 = h8 (see ChessPosition.getSquare).
+    // These are transient so the Gson form of a board is still just the grid; they are rebuilt from it on first use
+    // after deserialization.
+    private transient long[] pieceBitboards; // one per color and piece type, indexed by pieceIndex()
+    private transient long[] teamBitboards;  // indexed by TeamColor.ordinal()
+    private transient long occupied;
+    private transient long zobristKey; // XOR of Zobrist.piece() for every piece on the board (no state)
+    private transient long pawnKey;    // the same, for pawns only
+    private transient int middlegameScore; // sums of PieceSquareTables values for every piece on the board
+    private transient int endgameScore;
+    private transient int phase;
+    private transient int materialSignature; // piece counts, see Material
+
+    // The shared ChessPiece for each pieceIndex(), used when makeMove/unmakeMove need to put a piece back from its index
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                PIECES[pieceIndex(color, type)] = ChessPiece.of(color, type);
+            }
+        }
+    }
+
+    // Undo records for makeMove, newest last. Each record is the packed move in the low 32 bits, then the index of
+    // the piece that moved (4 bits), then the index of the captured piece plus one, or 0 if nothing was captured,
+    // then the state from before the move (24 bits).
+    private static final int INITIAL_UNDO_CAPACITY = 128;
+    private static final int MOVED_PIECE_SHIFT = 32;
+    private static final int CAPTURED_PIECE_SHIFT = 36;
+    private static final int STATE_SHIFT = 40;
+    private transient long[] undoStack;
+    private transient int undoCount;
+
     public ChessBoard() {
         board = new ChessPiece[8][8];
+        undoStack = new long[INITIAL_UNDO_CAPACITY];
+    }
+
+    /**
+     * Creates an independent copy of another board's position, e.g. so each worker thread can own one.
+     * The copy starts with an empty undo stack.
+     */
+    public ChessBoard(ChessBoard other) {
+        board = new ChessPiece[8][];
+        for (int row = 0; row < 8; row++) {
+            board[row] = other.board[row].clone();
+        }
+        undoStack = new long[INITIAL_UNDO_CAPACITY];
+        pieceBitboards = other.bitboards().clone();
+        teamBitboards = other.teamBitboards.clone();
+        occupied = other.occupied;
+        zobristKey = other.zobristKey;
+        pawnKey = other.pawnKey;
+        middlegameScore = other.middlegameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
+        materialSignature = other.materialSignature;
+        state = other.state;
+    }
+
+    /**
+     * @return the index (0-11) used for the given color and type in the per-piece bitboards
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
     }
 
     /**
@@ -25,18 +131,30 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        board[row - 1][col - 1] = piece;
+        addPiece(position.getSquare(), piece);
+    }
+
+    /**
+     * Adds a chess piece to the chessboard by square index (see ChessPosition.getSquare).
+     * Replaces whatever is already there; a null piece empties the square.
+     */
+    public void addPiece(int square, ChessPiece piece) {
+        clearSquare(square);
+        if (piece != null) setSquare(square, piece);
     }
 
     /**
      * Removes the piece at the specified location on the board
      */
     public void removePiece(ChessPosition position) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        board[row - 1][col - 1] = null;
+        clearSquare(position.getSquare());
+    }
+
+    /**
+     * Removes the piece at the given square index (see ChessPosition.getSquare)
+     */
+    public void removePiece(int square) {
+        clearSquare(square);
     }
 
     /**
@@ -52,17 +170,159 @@ public class ChessBoard {
         return board[row - 1][col - 1];
     }
 
+    /**
+     * Gets a chess piece on the chessboard by square index (see ChessPosition.getSquare)
+     */
+    public ChessPiece getPiece(int square) {
+        return board[square >>> 3][square & 7];
+    }
+
+    /**
+     * @return bitboard of the squares holding pieces of the given color and type
+     */
+    public long getPieces(ChessGame.TeamColor team, ChessPiece.PieceType type) {
+        return bitboards()[pieceIndex(team, type)];
+    }
+
+    /**
+     * @return bitboard of the squares holding any of the given team's pieces
+     */
+    public long getTeamPieces(ChessGame.TeamColor team) {
+        bitboards();
+        return teamBitboards[team.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupied() {
+        bitboards();
+        return occupied;
+    }
+
+    /**
+     * @return the square index of the given team's king, or -1 if it has none. The king bitboard is kept up to date
+     * as pieces move, so this is a single bit scan rather than a search of the board.
+     */
+    public int getKingSquare(ChessGame.TeamColor team) {
+        long king = getPieces(team, ChessPiece.PieceType.KING);
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * @return the castling rights still held, as a combination of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE
+     * and BLACK_QUEENSIDE. A right only says the King and Rook have not moved; castling may still be blocked.
+     */
+    public int getCastlingRights() {
+        return state & CASTLING_MASK;
+    }
+
+    public void setCastlingRights(int rights) {
+        state = (state & ~CASTLING_MASK) | (rights & CASTLING_MASK);
+    }
+
+    /**
+     * @return the square a pawn may capture en passant onto (the one a pawn just skipped with a double push), or -1.
+     * makeMove only records it when an enemy pawn is in place to make the capture.
+     */
+    public int getEnPassantSquare() {
+        return ((state >>> EN_PASSANT_SHIFT) & EN_PASSANT_MASK) - 1;
+    }
+
+    /**
+     * @param square the en passant target square, or -1 for none
+     */
+    public void setEnPassantSquare(int square) {
+        state = (state & ~(EN_PASSANT_MASK << EN_PASSANT_SHIFT)) | ((square + 1) << EN_PASSANT_SHIFT);
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move (counting each side's move), for the
+     * fifty-move rule
+     */
+    public int getHalfmoveClock() {
+        return (state >>> HALFMOVE_SHIFT) & HALFMOVE_MASK;
+    }
+
+    /**
+     * @param halfmoveClock capped at MAX_HALFMOVE_CLOCK
+     */
+    public void setHalfmoveClock(int halfmoveClock) {
+        int clock = Math.min(halfmoveClock, HALFMOVE_MASK);
+        state = (state & ~(HALFMOVE_MASK << HALFMOVE_SHIFT)) | (clock << HALFMOVE_SHIFT);
+    }
+
+    /**
+     * @return the Zobrist key of the position apart from whose turn it is: the pieces, castling rights and en
+     * passant file (see Zobrist). It is updated as pieces are added, removed and moved, so this costs nothing. See
+     * getZobristKey(TeamColor) for the full key.
+     */
+    public long getZobristKey() {
+        bitboards();
+        int enPassantSquare = getEnPassantSquare();
+        return zobristKey ^ Zobrist.castling(getCastlingRights())
+                ^ (enPassantSquare < 0 ? 0 : Zobrist.enPassantFile(enPassantSquare & 7));
+    }
+
+    /**
+     * @return the Zobrist key of the position with the given team to move
+     */
+    public long getZobristKey(ChessGame.TeamColor sideToMove) {
+        return getZobristKey() ^ Zobrist.sideToMove(sideToMove);
+    }
+
+    /**
+     * @return the Zobrist key of the pawns alone, which identifies the pawn structure. 0 with no pawns on the board.
+     */
+    public long getPawnKey() {
+        bitboards();
+        return pawnKey;
+    }
+
+    /**
+     * @return material plus piece-square score for the middlegame, from white's point of view (see
+     * PieceSquareTables). Kept up to date as pieces move, like the Zobrist key.
+     */
+    public int getMiddlegameScore() {
+        bitboards();
+        return middlegameScore;
+    }
+
+    /**
+     * @return material plus piece-square score for the endgame, from white's point of view
+     */
+    public int getEndgameScore() {
+        bitboards();
+        return endgameScore;
+    }
+
+    /**
+     * @return the game phase: PieceSquareTables.MAX_PHASE with all pieces on the board, falling to 0 as pieces
+     * other than pawns come off (more than the maximum after promotions)
+     */
+    public int getPhase() {
+        bitboards();
+        return phase;
+    }
+
+    /**
+     * @return the number of each kind of piece on the board other than Kings and pawns, packed as described in
+     * Material
+     */
+    public int getMaterialSignature() {
+        bitboards();
+        return materialSignature;
+    }
+
+    /**
+     * Prefer iterating getTeamPieces/getOccupied with bit scans where allocation matters.
+     */
     public HashMap<ChessPosition, ChessPiece> getAllPieces() {
         HashMap<ChessPosition, ChessPiece> pieces = new HashMap<>();
 
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = getPiece(position);
-                if (piece != null) {
-                    pieces.put(position, piece);
-                }
-            }
+        for (long occupied = getOccupied(); occupied != 0; occupied &= occupied - 1) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            pieces.put(ChessPosition.fromSquare(square), getPiece(square));
         }
 
         return pieces;
@@ -75,12 +335,85 @@ public class ChessBoard {
     public void movePiece(ChessMove move) {
         ChessPiece piece = getPiece(move.getStartPosition());
         if (move.getPromotionPiece() != null) {
-            piece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
+            piece = ChessPiece.of(piece.getTeamColor(), move.getPromotionPiece());
         }
         addPiece(move.getEndPosition(), piece);
         removePiece(move.getStartPosition());
     }
 
+    /**
+     * Makes a packed move (see PackedMove), including the Rook's half of castling and the pawn taken en passant,
+     * updates the castling rights, en passant square and halfmove clock, and remembers how to take it all back
+     * with unmakeMove. Like movePiece, does not check whether the move is valid.
+     */
+    public void makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int capturedSquare = PackedMove.isEnPassant(move) ? enPassantVictim(from, to) : to;
+        ChessPiece piece = getPiece(from);
+        ChessPiece captured = getPiece(capturedSquare);
+        int pieceIndex = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        int capturedIndex = captured == null ? -1 : pieceIndex(captured.getTeamColor(), captured.getPieceType());
+
+        if (undoCount == undoStack.length) undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+        undoStack[undoCount++] = (move & 0xFFFFFFFFL)
+                | ((long) pieceIndex << MOVED_PIECE_SHIFT)
+                | ((long) (capturedIndex + 1) << CAPTURED_PIECE_SHIFT)
+                | ((long) state << STATE_SHIFT);
+
+        clearSquare(from);
+        clearSquare(capturedSquare);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        setSquare(to, promotion == null ? piece : PIECES[pieceIndex(piece.getTeamColor(), promotion)]);
+        if (PackedMove.isCastle(move)) {
+            int rookFrom = castlingRookFrom(to);
+            ChessPiece rook = getPiece(rookFrom);
+            clearSquare(rookFrom);
+            setSquare((from + to) >>> 1, rook);
+        }
+
+        // A double push allows en passant only if an enemy pawn stands next to where the pawn landed. Leaving it
+        // out otherwise keeps the key of the position the same as if the pawn had got there another way.
+        int enPassantSquare = -1;
+        if ((move & PackedMove.DOUBLE_PAWN_PUSH) != 0) {
+            int skipped = (from + to) >>> 1;
+            ChessGame.TeamColor enemy = piece.getTeamColor().opponent();
+            long enemyPawns = bitboards()[pieceIndex(enemy, ChessPiece.PieceType.PAWN)];
+            if ((Attacks.pawnAttacks(piece.getTeamColor(), skipped) & enemyPawns) != 0) enPassantSquare = skipped;
+        }
+        boolean resetsClock = captured != null || piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        int halfmoveClock = resetsClock ? 0 : Math.min(getHalfmoveClock() + 1, HALFMOVE_MASK);
+        state = (getCastlingRights() & CASTLING_KEPT[from] & CASTLING_KEPT[to])
+                | ((enPassantSquare + 1) << EN_PASSANT_SHIFT)
+                | (halfmoveClock << HALFMOVE_SHIFT);
+    }
+
+    /**
+     * Takes back the last move made with makeMove, restoring the board exactly (including a promoted pawn).
+     */
+    public void unmakeMove() {
+        long record = undoStack[--undoCount];
+        int move = (int) record;
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int pieceIndex = (int) (record >>> MOVED_PIECE_SHIFT) & 0xF;
+        int capturedIndex = (int) (record >>> CAPTURED_PIECE_SHIFT) & 0xF;
+
+        if (PackedMove.isCastle(move)) {
+            int rookTo = (from + to) >>> 1;
+            ChessPiece rook = getPiece(rookTo);
+            clearSquare(rookTo);
+            setSquare(castlingRookFrom(to), rook);
+        }
+        clearSquare(to);
+        if (capturedIndex != 0) {
+            int capturedSquare = PackedMove.isEnPassant(move) ? enPassantVictim(from, to) : to;
+            setSquare(capturedSquare, PIECES[capturedIndex - 1]);
+        }
+        setSquare(from, PIECES[pieceIndex]);
+        state = (int) (record >>> STATE_SHIFT);
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -102,26 +435,145 @@ public class ChessBoard {
                     default -> null;
                 };
                 ChessPiece piece = switch (row) {
-                    case 2, 7 -> new ChessPiece(color, ChessPiece.PieceType.PAWN);
-                    case 1, 8 -> new ChessPiece(color, type);
+                    case 2, 7 -> ChessPiece.of(color, ChessPiece.PieceType.PAWN);
+                    case 1, 8 -> ChessPiece.of(color, type);
                     default -> null;
                 };
-                addPiece(new ChessPosition(row, col), piece);
+                addPiece(ChessPosition.of(row, col), piece);
             }
         }
+        state = ALL_CASTLING_RIGHTS;
+    }
+
+    /**
+     * Sets up a board from a FEN (see Fen). The side to move and fullmove number are checked but not kept, since a
+     * board doesn't hold them; ChessGame.fromFen keeps everything.
+     *
+     * @throws IllegalArgumentException if the text is not a valid FEN
+     */
+    public static ChessBoard fromFen(CharSequence fen) {
+        ChessBoard board = new ChessBoard();
+        Fen.parse(fen, board);
+        return board;
+    }
+
+    /**
+     * @return the position as a FEN, with the given side to move and fullmove number, which the board doesn't hold
+     */
+    public String toFen(ChessGame.TeamColor sideToMove, int fullmoveNumber) {
+        return Fen.toFen(this, sideToMove, fullmoveNumber);
     }
 
+    /**
+     * Compares piece placement only, not castling rights, en passant or the clock, so boards set up piece by piece
+     * equal a reset board.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChessBoard that = (ChessBoard) o;
-        return Arrays.deepEquals(board, that.board);
+        return Arrays.equals(bitboards(), that.bitboards());
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        // The pieces-only key, to agree with equals
+        bitboards();
+        long key = zobristKey;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * @return the square of the pawn taken by an en passant capture: beside the capturing pawn's start square, on the
+     * file it moves to
+     */
+    private static int enPassantVictim(int from, int to) {
+        return (from & ~7) | (to & 7);
+    }
+
+    /**
+     * @return the Rook's starting square for a castling move whose King lands on the given square
+     */
+    private static int castlingRookFrom(int kingTo) {
+        return (kingTo & 7) == 6 ? kingTo + 1 : kingTo - 2;
+    }
+
+    /*
+     * Grid and bitboard upkeep. Every change to the board goes through these two methods so the views never drift.
+     */
+
+    private void setSquare(int square, ChessPiece piece) {
+        long bit = 1L << square;
+        int pieceIndex = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        bitboards()[pieceIndex] |= bit;
+        teamBitboards[piece.getTeamColor().ordinal()] |= bit;
+        occupied |= bit;
+        zobristKey ^= Zobrist.piece(pieceIndex, square);
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) pawnKey ^= Zobrist.piece(pieceIndex, square);
+        middlegameScore += PieceSquareTables.middlegame(pieceIndex, square);
+        endgameScore += PieceSquareTables.endgame(pieceIndex, square);
+        phase += PieceSquareTables.phase(pieceIndex);
+        materialSignature += Material.unit(pieceIndex);
+        board[square >>> 3][square & 7] = piece;
+    }
+
+    private void clearSquare(int square) {
+        ChessPiece piece = getPiece(square);
+        if (piece == null) return;
+        long bit = 1L << square;
+        int pieceIndex = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        bitboards()[pieceIndex] &= ~bit;
+        teamBitboards[piece.getTeamColor().ordinal()] &= ~bit;
+        occupied &= ~bit;
+        zobristKey ^= Zobrist.piece(pieceIndex, square);
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) pawnKey ^= Zobrist.piece(pieceIndex, square);
+        middlegameScore -= PieceSquareTables.middlegame(pieceIndex, square);
+        endgameScore -= PieceSquareTables.endgame(pieceIndex, square);
+        phase -= PieceSquareTables.phase(pieceIndex);
+        materialSignature -= Material.unit(pieceIndex);
+        board[square >>> 3][square & 7] = null;
+    }
+
+    private long[] bitboards() {
+        if (pieceBitboards == null) rebuildBitboards();
+        return pieceBitboards;
+    }
+
+    private void rebuildBitboards() {
+        long[] pieces = new long[12];
+        long[] teams = new long[2];
+        long all = 0;
+        long key = 0;
+        long pawns = 0;
+        int middlegame = 0;
+        int endgame = 0;
+        int phaseSum = 0;
+        int signature = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = getPiece(square);
+            if (piece == null) continue;
+            long bit = 1L << square;
+            int pieceIndex = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+            pieces[pieceIndex] |= bit;
+            teams[piece.getTeamColor().ordinal()] |= bit;
+            all |= bit;
+            key ^= Zobrist.piece(pieceIndex, square);
+            if (piece.getPieceType() == ChessPiece.PieceType.PAWN) pawns ^= Zobrist.piece(pieceIndex, square);
+            middlegame += PieceSquareTables.middlegame(pieceIndex, square);
+            endgame += PieceSquareTables.endgame(pieceIndex, square);
+            phaseSum += PieceSquareTables.phase(pieceIndex);
+            signature += Material.unit(pieceIndex);
+        }
+        teamBitboards = teams;
+        occupied = all;
+        zobristKey = key;
+        pawnKey = pawns;
+        middlegameScore = middlegame;
+        endgameScore = endgame;
+        phase = phaseSum;
+        materialSignature = signature;
+        pieceBitboards = pieces;
     }
 
     @Override
@@ -130,7 +582,7 @@ public class ChessBoard {
         for (int i = 8; i >= 1; i--) {
             boardString.append("|");
             for (int j = 1; j <= 8; j++) {
-                ChessPiece piece = getPiece(new ChessPosition(i, j));
+                ChessPiece piece = getPiece(ChessPosition.of(i, j));
                 if (piece == null) boardString.append(" ");
                 else boardString.append(piece);
                 boardString.append("|");
@@ -1,8 +1,15 @@
 package chess;
 
+import chess.bitbase.Bitbase;
+import chess.bitbase.Bitbases;
 import chess.chessRules.ChessRules;
+import chess.chessRules.Material;
+import chess.chessRules.PackedMove;
+import chess.chessRules.moveCalc.MoveCalc;
 import com.google.gson.Gson;
+import com.google.gson.annotations.JsonAdapter;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -16,11 +23,43 @@ public class ChessGame {
     private ChessBoard board;
     public TeamColor playerTurn;
     private final ChessRules rules;
+
+    // getGameStatus() result and the Zobrist key of the position it was worked out for
+    private transient GameStatus status;
+    private transient long statusKey;
+
+    // Zobrist keys of the positions that can still repeat; saved as just those keys (see PositionHistory)
+    private static final int FIFTY_MOVE_PLIES = 100;
+    @JsonAdapter(PositionHistory.Adapter.class)
+    private PositionHistory positionHistory = new PositionHistory();
+
+    // Bitbases for deciding simple endings at once, if any; set by whoever runs the game, so not saved with it
+    private transient Bitbases bitbases;
+
+    // Every move made since the game started, as packed ints (see PackedMove), so a game can be replayed, e.g. to
+    // build an opening book. Empty if the board was set up with setBoard. The first moveCount slots are used; the
+    // array doubles when full, so making a move doesn't copy the whole history.
+    private static final int INITIAL_MOVE_CAPACITY = 16;
+    private int[] moveHistory = new int[0];
+    private int moveCount;
+
+    // Starts at 1 and goes up after each of black's moves, as in FEN
+    private int fullmoveNumber = 1;
+
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
         rules = new ChessRules();
         playerTurn = TeamColor.WHITE;
+        restartHistory();
+    }
+
+    private ChessGame(ChessBoard board, TeamColor playerTurn, int fullmoveNumber) {
+        this.board = board;
+        rules = new ChessRules();
+        this.playerTurn = playerTurn;
+        this.fullmoveNumber = fullmoveNumber;
+        restartHistory();
     }
 
     /**
@@ -37,6 +76,7 @@ public class ChessGame {
      */
     public void setPlayerTurn(TeamColor team) {
         playerTurn = team;
+        restartHistory();
     }
 
     private void advancePlayerTurn() {
@@ -48,7 +88,42 @@ public class ChessGame {
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        /**
+         * @return the other team
+         */
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
+    }
+
+    /**
+     * The state of the game for the player whose turn it is
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        // The same position, with the same player to move, has come up three times
+        THREEFOLD_REPETITION,
+        // 50 moves by each player without a capture or a pawn move
+        FIFTY_MOVE_RULE,
+        // Neither player has the pieces to checkmate, e.g. King against King and Bishop
+        DEAD_POSITION,
+        // An ending the bitbases cover (see setBitbases), decided with best play: the player to move wins, loses,
+        // or can't be beaten but can't win either
+        KNOWN_WIN,
+        KNOWN_LOSS,
+        KNOWN_DRAW;
+
+        /**
+         * @return whether the game ends in this status
+         */
+        public boolean isGameOver() {
+            return this != NORMAL && this != CHECK;
+        }
     }
 
     /**
@@ -76,17 +151,26 @@ public class ChessGame {
         if (getPlayerTurn() != moveTeam) throw new InvalidMoveException("Move out of turn");
 
         // Get all the valid moves for the piece at the specified start position
-        Collection<ChessMove> validMoves = validMoves(move.getStartPosition());
-        if (validMoves == null || validMoves.isEmpty()) {
+        int[] validMoves = new int[MoveCalc.MAX_PIECE_MOVES];
+        int validMoveCount = rules.validMoves(board, move.getStartPosition().getSquare(), validMoves, 0);
+        if (validMoveCount == 0) {
             throw new InvalidMoveException("Position yields no valid moves");
         }
 
         // Check the proposed move against every valid move to see if it matches one
         // If it does, make the move
-        for (var validMove : validMoves) {
-            if (validMove.equals(move)) {
-                board.movePiece(move);
+        int proposedMove = PackedMove.fromChessMove(move);
+        for (int i = 0; i < validMoveCount; i++) {
+            if (PackedMove.sameMove(validMoves[i], proposedMove)) {
+                board.makeMove(validMoves[i]);
+                if (moveCount == moveHistory.length) {
+                    moveHistory = Arrays.copyOf(moveHistory, Math.max(INITIAL_MOVE_CAPACITY, 2 * moveCount));
+                }
+                moveHistory[moveCount++] = validMoves[i];
+                if (playerTurn == TeamColor.BLACK) fullmoveNumber++;
                 advancePlayerTurn();
+                recordPosition();
+                status = null;
                 moveIsValid = true;
                 break;
             }
@@ -126,6 +210,128 @@ public class ChessGame {
         return rules.isInStalemate(board, teamColor);
     }
 
+    /**
+     * Determines whether the player whose turn it is is in check, checkmate or stalemate, or whether the game is
+     * drawn by threefold repetition, the fifty-move rule or a lack of mating material. This does the work of
+     * isInCheck, isInCheckmate and isInStalemate at once, and the result is kept until the position changes, so
+     * calling it again is free. A dead position is told from the material signature alone, without generating
+     * moves; otherwise checkmate and stalemate take precedence over the draws, and those over the bitbases.
+     *
+     * @return the status for the player to move, or NORMAL if the game is over and no one is to move
+     */
+    public GameStatus getGameStatus() {
+        if (playerTurn == null) return GameStatus.NORMAL;
+        long key = getZobristKey();
+        if (status == null || statusKey != key) {
+            status = Material.isDeadPosition(board)
+                    ? GameStatus.DEAD_POSITION
+                    : rules.gameStatus(board, playerTurn);
+            if (!status.isGameOver()) {
+                if (repetitions() >= 2) status = GameStatus.THREEFOLD_REPETITION;
+                else if (board.getHalfmoveClock() >= FIFTY_MOVE_PLIES) status = GameStatus.FIFTY_MOVE_RULE;
+                else status = knownResult(status);
+            }
+            statusKey = key;
+        }
+        return status;
+    }
+
+    /**
+     * @return how many times the current position came up before in this game, with the same player to move and
+     * the same castling and en passant options
+     */
+    public int repetitions() {
+        return positionHistory.repetitions();
+    }
+
+    /**
+     * @return the moves made so far, first move first, as packed ints (see PackedMove). Replaying them on a reset
+     * board gives the current position, unless the board was set up with setBoard, which clears them.
+     */
+    public int[] getMoveHistory() {
+        return Arrays.copyOf(moveHistory, moveCount);
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move, counting each player's move
+     */
+    public int getHalfmoveClock() {
+        return board.getHalfmoveClock();
+    }
+
+    /**
+     * @return the number of the current move, counting a move by each player as one, as in FEN
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Sets up a game from a FEN (see Fen), keeping every field: pieces, player to move, castling rights, en passant
+     * square and both counters. Earlier moves are unknown, so the move history starts empty and repetitions are
+     * counted from this position.
+     *
+     * @throws IllegalArgumentException if the text is not a valid FEN
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        ChessBoard board = new ChessBoard();
+        int parsed = Fen.parse(fen, board);
+        return new ChessGame(board, Fen.sideToMove(parsed), Fen.fullmoveNumber(parsed));
+    }
+
+    /**
+     * @return the position as a FEN. A finished game, with no player to move, is written with white to move.
+     */
+    public String toFen() {
+        return board.toFen(playerTurn == TeamColor.BLACK ? TeamColor.BLACK : TeamColor.WHITE, fullmoveNumber);
+    }
+
+    /**
+     * Lets getGameStatus decide the endings the bitbases cover (KQK, KRK and KPK) as soon as they come up in this
+     * game: draws at once, and wins only when the halfmove clock is 0. Null, the default, leaves them to be played
+     * out. Not saved with the game, so set it again on a loaded game.
+     */
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+        status = null;
+    }
+
+    private GameStatus knownResult(GameStatus status) {
+        Bitbase.Result result = bitbases == null ? null : bitbases.probe(board, playerTurn);
+        if (result == null) return status;
+        // The bitbases don't say how long a win takes, so it is only certain while all fifty moves are left, right
+        // after the capture or pawn move that entered the ending; later the fifty-move rule could draw it first
+        boolean clockUnused = board.getHalfmoveClock() == 0;
+        return switch (result) {
+            case WIN -> clockUnused ? GameStatus.KNOWN_WIN : status;
+            case LOSS -> clockUnused ? GameStatus.KNOWN_LOSS : status;
+            case DRAW -> GameStatus.KNOWN_DRAW;
+        };
+    }
+
+    private void recordPosition() {
+        // A capture or pawn move can't be undone, so nothing before it can repeat
+        if (board.getHalfmoveClock() == 0) positionHistory.clear();
+        positionHistory.add(getZobristKey());
+    }
+
+    /**
+     * Forgets the positions so far and starts counting from the current one, when the position is set from outside
+     */
+    private void restartHistory() {
+        positionHistory.clear();
+        status = null;
+        recordPosition();
+    }
+
+    /**
+     * @return the 64-bit Zobrist key of the current position, including whose turn it is. Kept up to date as moves
+     * are made, so it is cheap enough to use as a cache or history key.
+     */
+    public long getZobristKey() {
+        return board.getZobristKey(playerTurn == null ? TeamColor.BLACK : playerTurn);
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
@@ -133,6 +339,8 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        moveCount = 0;
+        restartHistory();
     }
 
     /**
@@ -72,7 +72,7 @@ public class ChessMove {
         for (int i = 8; i >= 1; i--) {
             boardString.append("|");
             for (int j = 1; j <= 8; j++) {
-                ChessPosition pos = new ChessPosition(i, j);
+                ChessPosition pos = ChessPosition.of(i, j);
                 if (pos.equals(startPosition)) boardString.append("x");
                 else if (pos.equals(endPosition)) boardString.append("*");
                 else boardString.append(" ");
@@ -13,6 +13,17 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    // Pieces never change once made, so one of each color and type is shared (see of())
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor teamColor;
     private final PieceType pieceType;
 
@@ -21,6 +32,13 @@ public class ChessPiece {
         this.pieceType = type;
     }
 
+    /**
+     * @return the shared piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -56,14 +74,7 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        return switch (board.getPiece(myPosition).getPieceType()) {
-            case KING -> new KingCalc().pieceMoves(board, myPosition);
-            case QUEEN -> new QueenCalc().pieceMoves(board, myPosition);
-            case BISHOP -> new BishopCalc().pieceMoves(board, myPosition);
-            case KNIGHT -> new KnightCalc().pieceMoves(board, myPosition);
-            case ROOK -> new RookCalc().pieceMoves(board, myPosition);
-            case PAWN -> new PawnCalc().pieceMoves(board, myPosition);
-        };
+        return MoveCalc.of(board.getPiece(myPosition).getPieceType()).pieceMoves(board, myPosition);
     }
 
     @Override
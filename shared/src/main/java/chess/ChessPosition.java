@@ -10,14 +10,31 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
-    int row;
-    int column;
+    // Positions never change once made, so the 64 squares of the board are shared (see of())
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
+    final int row;
+    final int column;
 
     public ChessPosition(int row, int col) {
         this.row = row;
         this.column = col;
     }
 
+    /**
+     * @return the shared instance for the given square; positions off the board are made fresh
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) return new ChessPosition(row, col);
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -34,6 +51,20 @@ public class ChessPosition {
         return column;
     }
 
+    /**
+     * @return this position as a square index, 0 (A1) through 63 (H8), counting across each row first
+     */
+    public int getSquare() {
+        return (row - 1) * 8 + (column - 1);
+    }
+
+    /**
+     * @return the position of the given square index (see getSquare)
+     */
+    public static ChessPosition fromSquare(int square) {
+        return SQUARES[square];
+    }
+
     public String positionCode() {
         String col = switch (this.column) {
             case 1 -> "A";
@@ -0,0 +1,203 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.chessRules.Attacks;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, the one-line text form of a position: the pieces rank by rank from the
+ * eighth, then the side to move, castling rights, en passant square, halfmove clock and fullmove number, e.g.
+ * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1".
+ * <p>
+ * The parser walks the text once, a character at a time, putting pieces straight onto the board, so it allocates
+ * nothing beyond the board itself. The two counters may be left off, as some tools do; they default to 0 and 1.
+ */
+final class Fen {
+
+    // parse() packs what the board doesn't hold into its result: black to move in bit 0, the fullmove number above
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int FULLMOVE_SHIFT = 1;
+
+    private static final char[] CASTLING_LETTERS = {'K', 'Q', 'k', 'q'}; // in the order of the ChessBoard bits
+    private static final String PIECE_LETTERS = "KQBNRPkqbnrp"; // in ChessBoard.pieceIndex() order
+    private static final ChessPiece[] PIECES = new ChessPiece[PIECE_LETTERS.length()];
+
+    static {
+        for (TeamColor team : TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[ChessBoard.pieceIndex(team, type)] = ChessPiece.of(team, type);
+            }
+        }
+    }
+
+    private Fen() {}
+
+    /**
+     * Sets up an empty board from the FEN: its pieces, castling rights, en passant square and halfmove clock. The en
+     * passant square is only kept if a pawn can capture onto it, as makeMove does, so the Zobrist key matches the
+     * same position reached by moves.
+     *
+     * @return the side to move and fullmove number, packed; see sideToMove() and fullmoveNumber()
+     * @throws IllegalArgumentException if the text is not a valid FEN
+     */
+    static int parse(CharSequence fen, ChessBoard board) {
+        int length = fen.length();
+        int i = 0;
+
+        // Pieces, from a8 to h8, then down to a1 to h1
+        int rank = 7;
+        int file = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (file != 8 || rank == 0) throw invalid(fen, "wrong number of squares on rank " + (rank + 1));
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) throw invalid(fen, "too many squares on rank " + (rank + 1));
+            } else {
+                int pieceIndex = PIECE_LETTERS.indexOf(c);
+                if (pieceIndex < 0) throw invalid(fen, "unknown piece '" + c + "'");
+                if (file == 8) throw invalid(fen, "too many squares on rank " + (rank + 1));
+                board.addPiece(rank * 8 + file, PIECES[pieceIndex]);
+                file++;
+            }
+        }
+        if (rank != 0 || file != 8) throw invalid(fen, "the pieces don't fill the board");
+
+        // Side to move
+        i = skipSpace(fen, i);
+        char side = charAt(fen, i++);
+        if (side != 'w' && side != 'b') throw invalid(fen, "the side to move must be w or b");
+        TeamColor sideToMove = side == 'w' ? TeamColor.WHITE : TeamColor.BLACK;
+
+        // Castling rights
+        i = skipSpace(fen, i);
+        int rights = 0;
+        if (charAt(fen, i) == '-') {
+            i++;
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                int right = castlingRight(fen.charAt(i));
+                if (right == 0 || (rights & right) != 0) throw invalid(fen, "bad castling rights");
+                rights |= right;
+            }
+        }
+        board.setCastlingRights(rights);
+
+        // En passant square
+        i = skipSpace(fen, i);
+        if (charAt(fen, i) == '-') {
+            i++;
+        } else {
+            int epFile = charAt(fen, i++) - 'a';
+            int epRank = charAt(fen, i++) - '1';
+            int expectedRank = sideToMove == TeamColor.WHITE ? 5 : 2;
+            if (epFile < 0 || epFile > 7 || epRank != expectedRank) throw invalid(fen, "bad en passant square");
+            int square = epRank * 8 + epFile;
+            // The squares a capturing pawn could stand on are those an enemy pawn on the target square would attack
+            long capturers = Attacks.pawnAttacks(sideToMove.opponent(), square);
+            if ((capturers & board.getPieces(sideToMove, PieceType.PAWN)) != 0) board.setEnPassantSquare(square);
+        }
+
+        // The counters, if there
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        if (i < length) {
+            i = skipSpace(fen, i);
+            halfmoveClock = readNumber(fen, i);
+            if (halfmoveClock > ChessBoard.MAX_HALFMOVE_CLOCK) throw invalid(fen, "halfmove clock too large");
+            i = skipDigits(fen, i);
+            i = skipSpace(fen, i);
+            fullmoveNumber = readNumber(fen, i);
+            i = skipDigits(fen, i);
+        }
+        if (i != length) throw invalid(fen, "unexpected text at the end");
+        board.setHalfmoveClock(halfmoveClock);
+
+        // Some tools write a fullmove number of 0; the count starts at 1
+        return (Math.max(1, fullmoveNumber) << FULLMOVE_SHIFT) | (sideToMove == TeamColor.BLACK ? BLACK_TO_MOVE : 0);
+    }
+
+    static TeamColor sideToMove(int parsed) {
+        return (parsed & BLACK_TO_MOVE) != 0 ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    static int fullmoveNumber(int parsed) {
+        return parsed >>> FULLMOVE_SHIFT;
+    }
+
+    static String toFen(ChessBoard board, TeamColor sideToMove, int fullmoveNumber) {
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                ChessPiece piece = board.getPiece(rank * 8 + file);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) fen.append((char) ('0' + empty));
+                empty = 0;
+                fen.append(PIECE_LETTERS.charAt(ChessBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType())));
+            }
+            if (empty > 0) fen.append((char) ('0' + empty));
+            if (rank > 0) fen.append('/');
+        }
+
+        fen.append(sideToMove == TeamColor.WHITE ? " w " : " b ");
+
+        int rights = board.getCastlingRights();
+        if (rights == 0) fen.append('-');
+        for (int bit = 0; bit < CASTLING_LETTERS.length; bit++) {
+            if ((rights & (1 << bit)) != 0) fen.append(CASTLING_LETTERS[bit]);
+        }
+
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant < 0) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + enPassant % 8)).append((char) ('1' + enPassant / 8));
+        }
+
+        return fen.append(' ').append(board.getHalfmoveClock()).append(' ').append(fullmoveNumber).toString();
+    }
+
+    private static int castlingRight(char letter) {
+        for (int bit = 0; bit < CASTLING_LETTERS.length; bit++) {
+            if (CASTLING_LETTERS[bit] == letter) return 1 << bit;
+        }
+        return 0;
+    }
+
+    private static char charAt(CharSequence fen, int i) {
+        if (i >= fen.length()) throw invalid(fen, "it ends too soon");
+        return fen.charAt(i);
+    }
+
+    /**
+     * @return the index after the single space expected at i
+     */
+    private static int skipSpace(CharSequence fen, int i) {
+        if (charAt(fen, i) != ' ') throw invalid(fen, "expected a space at " + i);
+        return i + 1;
+    }
+
+    private static int readNumber(CharSequence fen, int i) {
+        int number = 0;
+        int end = skipDigits(fen, i);
+        if (end == i || end - i > 6) throw invalid(fen, "expected a number at " + i);
+        for (; i < end; i++) number = number * 10 + fen.charAt(i) - '0';
+        return number;
+    }
+
+    private static int skipDigits(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) >= '0' && fen.charAt(i) <= '9') i++;
+        return i;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN (" + reason + "): " + fen);
+    }
+}
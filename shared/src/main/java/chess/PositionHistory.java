@@ -0,0 +1,81 @@
+package chess;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Zobrist keys of the positions since the last capture or pawn move, the current one last, in a ring. Earlier
+ * positions can never come back, and after 100 plies the fifty-move rule has ended the game, so 128 slots hold
+ * every position that can repeat.
+ * <p>
+ * Saved with the game so repetitions count across server requests, but only the live keys are: Adapter writes them
+ * as a JSON array, oldest first, and reading them back refills the ring.
+ */
+final class PositionHistory {
+
+    private static final int SIZE = 128;
+    private static final int MASK = SIZE - 1;
+
+    private final long[] keys = new long[SIZE];
+    private int count;
+
+    void clear() {
+        count = 0;
+    }
+
+    void add(long key) {
+        keys[count & MASK] = key;
+        count++;
+    }
+
+    /**
+     * @return how many times the last position added came up before
+     */
+    int repetitions() {
+        if (count == 0) return 0;
+        // Only every other position has the same player to move
+        long key = keys[(count - 1) & MASK];
+        int oldest = Math.max(0, count - SIZE);
+        int repetitions = 0;
+        for (int i = count - 3; i >= oldest; i -= 2) {
+            if (keys[i & MASK] == key) repetitions++;
+        }
+        return repetitions;
+    }
+
+    /**
+     * Gson form of a history: its live keys, oldest first
+     */
+    static final class Adapter extends TypeAdapter<PositionHistory> {
+
+        @Override
+        public void write(JsonWriter out, PositionHistory history) throws IOException {
+            if (history == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (int i = Math.max(0, history.count - SIZE); i < history.count; i++) {
+                out.value(history.keys[i & MASK]);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public PositionHistory read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            PositionHistory history = new PositionHistory();
+            in.beginArray();
+            while (in.hasNext()) history.add(in.nextLong());
+            in.endArray();
+            return history;
+        }
+    }
+}
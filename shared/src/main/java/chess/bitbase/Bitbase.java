@@ -0,0 +1,107 @@
+package chess.bitbase;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Whether the strong side wins every position of one Ending, one bit per position. The lone King can never win, so
+ * a clear bit means a draw with best play and a set bit a win for the strong side, whoever is to move.
+ * <p>
+ * Positions are seen from the strong side as white, so a black strong side is mirrored top to bottom. The index
+ * is the side to move (0 for the strong side) in bit 18, then the strong King's square, the lone King's square and
+ * the strong piece's square, 6 bits each. Impossible positions have a clear bit. That makes 2^19 bits, 64 KB, in
+ * a file of big-endian longs; open() memory maps it, so a loaded bitbase takes no heap.
+ */
+public class Bitbase {
+
+    /**
+     * The result with best play, for the side to move
+     */
+    public enum Result {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    static final int SIZE = 1 << 19;
+    static final int WORDS = SIZE / 64;
+    static final int WEAK_TO_MOVE = 1 << 18;
+
+    private final Ending ending;
+    private final LongBuffer bits;
+
+    Bitbase(Ending ending, LongBuffer bits) {
+        this.ending = ending;
+        this.bits = bits;
+    }
+
+    /**
+     * Maps a bitbase file written by write()
+     *
+     * @throws IOException if the file can't be read or is the wrong size
+     */
+    public static Bitbase open(Ending ending, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != WORDS * 8L) throw new IOException("Not a " + ending + " bitbase: " + path);
+            return new Bitbase(ending, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asLongBuffer());
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (int word = 0; word < WORDS; word++) {
+                out.writeLong(bits.get(word));
+            }
+        }
+    }
+
+    public Ending getEnding() {
+        return ending;
+    }
+
+    /**
+     * @return the result for the side to move, or null if the board doesn't hold this ending. Castling rights are
+     * not in the bitbase, so a position where castling is still allowed is not answered either.
+     */
+    public Result probe(ChessBoard board, TeamColor sideToMove) {
+        if (Ending.of(board) != ending || board.getCastlingRights() != 0) return null;
+
+        long strongPiece = board.getPieces(TeamColor.WHITE, ending.strongPiece());
+        TeamColor strong = strongPiece != 0 ? TeamColor.WHITE : TeamColor.BLACK;
+        TeamColor weak = strong.opponent();
+        int flip = strong == TeamColor.WHITE ? 0 : 56;
+        int index = index(sideToMove == strong,
+                board.getKingSquare(strong) ^ flip,
+                board.getKingSquare(weak) ^ flip,
+                Long.numberOfTrailingZeros(board.getPieces(strong, ending.strongPiece())) ^ flip);
+
+        if (!isWin(index)) return Result.DRAW;
+        return sideToMove == strong ? Result.WIN : Result.LOSS;
+    }
+
+    boolean isWin(int index) {
+        return (bits.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    static int index(boolean strongToMove, int strongKing, int weakKing, int strongPiece) {
+        return (strongToMove ? 0 : WEAK_TO_MOVE) | (strongKing << 12) | (weakKing << 6) | strongPiece;
+    }
+
+    /**
+     * @return the number of positions the strong side wins, for checking a generated bitbase
+     */
+    public int countWins() {
+        int wins = 0;
+        for (int word = 0; word < WORDS; word++) wins += Long.bitCount(bits.get(word));
+        return wins;
+    }
+}
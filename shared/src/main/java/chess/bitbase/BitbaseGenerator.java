@@ -0,0 +1,153 @@
+package chess.bitbase;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.chessRules.Attacks;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.LongBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Builds a Bitbase by retrograde analysis. Starting from the checkmates, each pass marks as won every position where
+ * the strong side can move to a won position, or where every move of the lone King leads to one, until a pass finds
+ * nothing new. Whatever is left is a draw.
+ * <p>
+ * Each pass runs in parallel over the words of the bit table, so every word has one writer. Other words may be
+ * read while they are written, which is harmless: bits only ever go from draw to win, so a stale read just leaves
+ * the position for a later pass. Reads and writes are opaque so a word is never seen half written.
+ */
+public final class BitbaseGenerator {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Ending ending;
+    private final long[] table = new long[Bitbase.WORDS];
+    // The bitbases a promoting pawn leads to; only used for KPK
+    private final Bitbase queenEnding;
+    private final Bitbase rookEnding;
+
+    private BitbaseGenerator(Ending ending, Bitbase queenEnding, Bitbase rookEnding) {
+        this.ending = ending;
+        this.queenEnding = queenEnding;
+        this.rookEnding = rookEnding;
+    }
+
+    /**
+     * Generates the bitbase of an ending without a pawn
+     */
+    public static Bitbase generate(Ending ending) {
+        if (ending == Ending.KPK) throw new IllegalArgumentException("KPK needs the KQK and KRK bitbases");
+        return new BitbaseGenerator(ending, null, null).run();
+    }
+
+    /**
+     * Generates the KPK bitbase, looking up promotions in the KQK and KRK bitbases
+     */
+    public static Bitbase generatePawnEnding(Bitbase queenEnding, Bitbase rookEnding) {
+        return new BitbaseGenerator(Ending.KPK, queenEnding, rookEnding).run();
+    }
+
+    private Bitbase run() {
+        while (IntStream.range(0, Bitbase.WORDS).parallel().map(this::updateWord).sum() > 0) {
+            // Keep passing until nothing changes
+        }
+        return new Bitbase(ending, LongBuffer.wrap(table));
+    }
+
+    /**
+     * @return the number of positions in the word newly found to be won
+     */
+    private int updateWord(int word) {
+        long bits = (long) WORDS.getOpaque(table, word);
+        long found = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            long mask = 1L << bit;
+            if ((bits & mask) == 0 && isWon(word * 64 + bit)) found |= mask;
+        }
+        if (found != 0) WORDS.setOpaque(table, word, bits | found);
+        return Long.bitCount(found);
+    }
+
+    private boolean isSet(int index) {
+        return ((long) WORDS.getOpaque(table, index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * @return true if the position is legal and, going by the positions found won so far, won for the strong side
+     */
+    private boolean isWon(int index) {
+        boolean strongToMove = (index & Bitbase.WEAK_TO_MOVE) == 0;
+        int strongKing = (index >>> 12) & 63;
+        int weakKing = (index >>> 6) & 63;
+        int piece = index & 63;
+
+        // Impossible positions: pieces on top of each other, Kings side by side, a pawn on the first or last row
+        if (strongKing == weakKing || strongKing == piece || weakKing == piece) return false;
+        if ((Attacks.kingAttacks(strongKing) & (1L << weakKing)) != 0) return false;
+        boolean pawn = ending == Ending.KPK;
+        if (pawn && (piece < 8 || piece >= 56)) return false;
+
+        long occupied = (1L << strongKing) | (1L << weakKing) | (1L << piece);
+        if (strongToMove) {
+            // The lone King can't be in check with the strong side to move
+            if ((pieceAttacks(piece, occupied) & (1L << weakKing)) != 0) return false;
+            return strongMoveWins(strongKing, weakKing, piece, occupied);
+        }
+        return everyWeakMoveLoses(strongKing, weakKing, piece, occupied);
+    }
+
+    private boolean strongMoveWins(int strongKing, int weakKing, int piece, long occupied) {
+        long kingTargets = Attacks.kingAttacks(strongKing) & ~(1L << piece) & ~Attacks.kingAttacks(weakKing);
+        for (; kingTargets != 0; kingTargets &= kingTargets - 1) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            if (isSet(Bitbase.index(false, to, weakKing, piece))) return true;
+        }
+
+        if (ending != Ending.KPK) {
+            long targets = pieceAttacks(piece, occupied) & ~occupied;
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                if (isSet(Bitbase.index(false, strongKing, weakKing, to))) return true;
+            }
+            return false;
+        }
+
+        // The pawn can only move forward, one square or two from its starting row, and wins if it promotes safely
+        int oneForward = piece + 8;
+        if ((occupied & (1L << oneForward)) != 0) return false;
+        if (oneForward >= 56) {
+            int promoted = Bitbase.index(false, strongKing, weakKing, oneForward);
+            return queenEnding.isWin(promoted) || rookEnding.isWin(promoted);
+        }
+        if (isSet(Bitbase.index(false, strongKing, weakKing, oneForward))) return true;
+        int twoForward = oneForward + 8;
+        return piece < 16 && (occupied & (1L << twoForward)) == 0
+                && isSet(Bitbase.index(false, strongKing, weakKing, twoForward));
+    }
+
+    private boolean everyWeakMoveLoses(int strongKing, int weakKing, int piece, long occupied) {
+        boolean inCheck = (pieceAttacks(piece, occupied) & (1L << weakKing)) != 0;
+        // Sliders see through the lone King's square, so it can't step back along the line of a check
+        long guarded = Attacks.kingAttacks(strongKing) | pieceAttacks(piece, occupied ^ (1L << weakKing));
+        long targets = Attacks.kingAttacks(weakKing) & ~guarded;
+        if (targets == 0) return inCheck; // checkmate is won, stalemate drawn
+
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            // Taking the undefended piece leaves bare Kings
+            if (to == piece) return false;
+            if (!isSet(Bitbase.index(true, strongKing, to, piece))) return false;
+        }
+        return true;
+    }
+
+    private long pieceAttacks(int square, long occupied) {
+        return switch (ending.strongPiece()) {
+            case QUEEN -> Attacks.queenAttacks(square, occupied);
+            case ROOK -> Attacks.rookAttacks(square, occupied);
+            default -> Attacks.pawnAttacks(TeamColor.WHITE, square);
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package chess.bitbase;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The bitbases for every Ending, answering any position they cover. Thread safe once built.
+ */
+public class Bitbases {
+
+    // Indexed by Ending.ordinal()
+    private final Bitbase[] bitbases;
+
+    private Bitbases(Bitbase[] bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    /**
+     * Generates every bitbase in memory, which takes a few seconds
+     */
+    public static Bitbases generate() {
+        Bitbase queen = BitbaseGenerator.generate(Ending.KQK);
+        Bitbase rook = BitbaseGenerator.generate(Ending.KRK);
+        return new Bitbases(new Bitbase[] {queen, rook, BitbaseGenerator.generatePawnEnding(queen, rook)});
+    }
+
+    /**
+     * Memory maps the bitbase files in the given directory, first generating and writing any that are missing
+     */
+    public static Bitbases open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Bitbase[] bitbases = new Bitbase[Ending.values().length];
+        for (Ending ending : Ending.values()) {
+            Path path = directory.resolve(ending.fileName());
+            if (!Files.exists(path)) {
+                // Endings are listed in generation order, so the ones KPK promotes to are already there
+                Bitbase generated = ending == Ending.KPK
+                        ? BitbaseGenerator.generatePawnEnding(get(bitbases, Ending.KQK), get(bitbases, Ending.KRK))
+                        : BitbaseGenerator.generate(ending);
+                generated.write(path);
+            }
+            bitbases[ending.ordinal()] = Bitbase.open(ending, path);
+        }
+        return new Bitbases(bitbases);
+    }
+
+    /**
+     * @return the result for the side to move, or null if no bitbase covers the position
+     */
+    public Bitbase.Result probe(ChessBoard board, TeamColor sideToMove) {
+        Ending ending = Ending.of(board);
+        return ending == null ? null : bitbases[ending.ordinal()].probe(board, sideToMove);
+    }
+
+    public Bitbase get(Ending ending) {
+        return get(bitbases, ending);
+    }
+
+    private static Bitbase get(Bitbase[] bitbases, Ending ending) {
+        return bitbases[ending.ordinal()];
+    }
+}
@@ -0,0 +1,49 @@
+package chess.bitbase;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.chessRules.Material;
+
+/**
+ * The endings with a bitbase: both Kings and one more piece, which belongs to the "strong" side. Listed in the
+ * order they must be generated, since a pawn that promotes turns KPK into KQK or KRK.
+ */
+public enum Ending {
+    KQK(PieceType.QUEEN),
+    KRK(PieceType.ROOK),
+    KPK(PieceType.PAWN);
+
+    private final PieceType strongPiece;
+
+    Ending(PieceType strongPiece) {
+        this.strongPiece = strongPiece;
+    }
+
+    public PieceType strongPiece() {
+        return strongPiece;
+    }
+
+    /**
+     * @return the file name the bitbase is stored under
+     */
+    public String fileName() {
+        return name().toLowerCase() + ".bb";
+    }
+
+    /**
+     * @return the ending on the board, or null if it is none of these. Found from the piece count and the material
+     * signature, so it costs next to nothing.
+     */
+    public static Ending of(ChessBoard board) {
+        if (Long.bitCount(board.getOccupied()) != 3) return null;
+        if (board.getKingSquare(TeamColor.WHITE) < 0 || board.getKingSquare(TeamColor.BLACK) < 0) return null;
+        int signature = board.getMaterialSignature();
+        if (signature == 0) return KPK; // the third piece must be a pawn
+        for (TeamColor team : TeamColor.values()) {
+            if (signature == Material.unit(ChessBoard.pieceIndex(team, PieceType.QUEEN))) return KQK;
+            if (signature == Material.unit(ChessBoard.pieceIndex(team, PieceType.ROOK))) return KRK;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,263 @@
+package chess.chessRules;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Precomputed attack tables, looked up by square index (see ChessPosition.getSquare) and, for the sliding pieces,
+ * board occupancy.
+ * <p>
+ * Rook and bishop attacks use magic bitboards: the occupied squares that can block a slider on a given square are
+ * masked out, multiplied by that square's magic number, and the top bits of the product index straight into the
+ * square's slice of the attack table. The magics below were found once by a random search; the tables themselves
+ * are filled when this class loads.
+ */
+public final class Attacks {
+
+    private static final long[] ROOK_MAGICS = {
+            0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+            0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+            0x0400800040008021L, 0x0400400020005000L, 0x8240801000200080L, 0x8611001004200900L,
+            0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+            0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+            0x0001818014000800L, 0xA002010100080400L, 0x0080240001020870L, 0x0001020004048845L,
+            0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+            0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+            0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+            0x4540040080800800L, 0x0002001004040020L, 0x0281195814001002L, 0x1240800040800100L,
+            0x0880042000524004L, 0x02C080410206002CL, 0x0801200241050010L, 0x8400080010008080L,
+            0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+            0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+            0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+            0x8044110480002441L, 0x2008110084402202L, 0x90806005090010C1L, 0x000420310A004A42L,
+            0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x0045010808008680L, 0x2002080204004898L, 0x0210009A10400006L, 0x0824050200810200L,
+            0x0006061105004090L, 0x00010108C0000000L, 0x0814040282104004L, 0x0012012201106800L,
+            0x10823014100C1040L, 0x0080C2088802808CL, 0x0281108410404000L, 0x0101212041826200L,
+            0x0020141028221058L, 0x2201020202200202L, 0x000082A801482000L, 0x0000008401411044L,
+            0x0007103014300404L, 0x0002091110010100L, 0x42140012040C0808L, 0x0800808802004020L,
+            0x90C4004210140000L, 0x0800200900A01000L, 0x00D0400201108810L, 0x80820183814412A0L,
+            0x00A01008202202B4L, 0x01C2021A09500402L, 0x0084440208042400L, 0x800400400C090100L,
+            0xBA10040010802100L, 0xD182009006005000L, 0x5011021001009004L, 0x0020420200510400L,
+            0x0292104000468800L, 0x00043009091C0500L, 0x0280441000020025L, 0x0042820080080080L,
+            0x0440101010010040L, 0x1000900100808080L, 0x0108108120089800L, 0x0044010200012682L,
+            0xC002500420900400L, 0x0040482210710800L, 0x0002060024000200L, 0x0281020A44000800L,
+            0xA0021200A4000200L, 0x0001301000840840L, 0x2868500108444220L, 0x0004111041000200L,
+            0x8044020842080200L, 0x0000220104210200L, 0x0000021201044000L, 0x0000280884040028L,
+            0x4012114010858003L, 0x0000081004082B88L, 0x3892700508208002L, 0x00220A041B060400L,
+            0x0812020284014881L, 0x010434A282103100L, 0x0490400824020800L, 0x4A20002C00208800L,
+            0x000000A011020200L, 0x4002940A02482202L, 0x5100100202140406L, 0x02102000840540C1L
+    };
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64]; // indexed by TeamColor.ordinal()
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_ATTACKS;
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_ATTACKS;
+
+    // Squares strictly between two squares that share a row, column or diagonal, and the whole line through both
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    // {row step, column step} for each jump or sliding direction
+    private static final int[][] KNIGHT_JUMPS = {{2, 1}, {1, 2}, {-1, 2}, {-2, 1}, {-2, -1}, {-1, -2}, {1, -2}, {2, -1}};
+    private static final int[][] KING_STEPS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = jumpTargets(square, KNIGHT_JUMPS);
+            KING_ATTACKS[square] = jumpTargets(square, KING_STEPS);
+            PAWN_ATTACKS[TeamColor.WHITE.ordinal()][square] = jumpTargets(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[TeamColor.BLACK.ordinal()][square] = jumpTargets(square, new int[][]{{-1, -1}, {-1, 1}});
+        }
+        ROOK_ATTACKS = buildTable(ROOK_DIRECTIONS, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS);
+        BISHOP_ATTACKS = buildTable(BISHOP_DIRECTIONS, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long ends = (1L << a) | (1L << b);
+                if (a != b && (rookAttacks(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, 1L << b) & rookAttacks(b, 1L << a);
+                    LINE[a][b] = (rookAttacks(a, 0) & rookAttacks(b, 0)) | ends;
+                } else if (a != b && (bishopAttacks(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, 1L << b) & bishopAttacks(b, 1L << a);
+                    LINE[a][b] = (bishopAttacks(a, 0) & bishopAttacks(b, 0)) | ends;
+                }
+            }
+        }
+    }
+
+    private Attacks() {}
+
+    /**
+     * @return the squares a knight on the given square attacks
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a king on the given square attacks
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the two (or, on an edge file, one) squares diagonally in front of a pawn of the given team
+     */
+    public static long pawnAttacks(TeamColor team, int square) {
+        return PAWN_ATTACKS[team.ordinal()][square];
+    }
+
+    /**
+     * @return the squares a rook on the given square attacks, stopping at (and including) the first occupied
+     * square in each direction
+     */
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_ATTACKS[ROOK_OFFSETS[square] + index];
+    }
+
+    /**
+     * @return the squares a bishop on the given square attacks, stopping at (and including) the first occupied
+     * square in each direction
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[square] + index];
+    }
+
+    /**
+     * @return the squares a queen on the given square attacks
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between a and b if they share a row, column or diagonal, otherwise 0
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return every square on the row, column or diagonal through a and b (edge to edge), otherwise 0
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * Looks outward from a square for pieces of the given team that attack it: pawn diagonals, knight jumps, king
+     * steps and slider rays, each a table lookup.
+     *
+     * @param occupied the occupancy the slider rays are cast through, normally board.getOccupied()
+     * @return bitboard of the attacking pieces
+     */
+    public static long attackersOf(ChessBoard board, int square, TeamColor byTeam, long occupied) {
+        long queens = board.getPieces(byTeam, PieceType.QUEEN);
+        return (pawnAttacks(byTeam.opponent(), square) & board.getPieces(byTeam, PieceType.PAWN))
+                | (knightAttacks(square) & board.getPieces(byTeam, PieceType.KNIGHT))
+                | (kingAttacks(square) & board.getPieces(byTeam, PieceType.KING))
+                | (bishopAttacks(square, occupied) & (board.getPieces(byTeam, PieceType.BISHOP) | queens))
+                | (rookAttacks(square, occupied) & (board.getPieces(byTeam, PieceType.ROOK) | queens));
+    }
+
+    /**
+     * @return true if any piece of the given team attacks the square. Stops at the first kind of attacker found.
+     */
+    public static boolean isAttacked(ChessBoard board, int square, TeamColor byTeam) {
+        long occupied = board.getOccupied();
+        long queens = board.getPieces(byTeam, PieceType.QUEEN);
+        return (knightAttacks(square) & board.getPieces(byTeam, PieceType.KNIGHT)) != 0
+                || (pawnAttacks(byTeam.opponent(), square) & board.getPieces(byTeam, PieceType.PAWN)) != 0
+                || (bishopAttacks(square, occupied) & (board.getPieces(byTeam, PieceType.BISHOP) | queens)) != 0
+                || (rookAttacks(square, occupied) & (board.getPieces(byTeam, PieceType.ROOK) | queens)) != 0
+                || (kingAttacks(square) & board.getPieces(byTeam, PieceType.KING)) != 0;
+    }
+
+    private static long jumpTargets(int square, int[][] jumps) {
+        long targets = 0;
+        for (int[] jump : jumps) {
+            int row = (square >>> 3) + jump[0];
+            int col = (square & 7) + jump[1];
+            if (row >= 0 && row <= 7 && col >= 0 && col <= 7) targets |= 1L << (row * 8 + col);
+        }
+        return targets;
+    }
+
+    private static long[] buildTable(int[][] directions, long[] magics, long[] masks, int[] shifts, int[] offsets) {
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            masks[square] = relevantOccupancy(square, directions);
+            shifts[square] = 64 - Long.bitCount(masks[square]);
+            offsets[square] = size;
+            size += 1 << Long.bitCount(masks[square]);
+        }
+
+        long[] table = new long[size];
+        for (int square = 0; square < 64; square++) {
+            // Visit every subset of the mask (carry-rippler trick) and store the attacks it produces
+            long mask = masks[square];
+            long subset = 0;
+            do {
+                int index = (int) ((subset * magics[square]) >>> shifts[square]);
+                table[offsets[square] + index] = slidingAttacks(square, subset, directions);
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+        return table;
+    }
+
+    /**
+     * Walks each ray square by square. Only used to fill the tables.
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = square >>> 3;
+            int col = square & 7;
+            while (true) {
+                row += direction[0];
+                col += direction[1];
+                if (row < 0 || row > 7 || col < 0 || col > 7) break;
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) break;
+            }
+        }
+        return attacks;
+    }
+
+    private static long relevantOccupancy(int square, int[][] directions) {
+        // The last square of each ray never blocks anything further, so it is left out of the mask
+        long mask = 0;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int col = (square & 7) + direction[1];
+            while (row + direction[0] >= 0 && row + direction[0] <= 7
+                    && col + direction[1] >= 0 && col + direction[1] <= 7) {
+                mask |= 1L << (row * 8 + col);
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+}
@@ -2,79 +2,93 @@ package chess.chessRules;
 
 import chess.*;
 import chess.ChessGame.TeamColor;
-import chess.ChessPiece.PieceType;
+import chess.chessRules.moveCalc.*;
 
 import java.util.Collection;
 import java.util.HashSet;
 
 public class ChessRules {
-    public Collection<ChessMove> validMoves(ChessBoard board, ChessPosition startPosition) {
-        ChessPiece piece = board.getPiece(startPosition);
+    // The shared move calculators, indexed by PieceType.ordinal()
+    static final MoveCalc[] CALCULATORS = {
+            KingCalc.INSTANCE, QueenCalc.INSTANCE, BishopCalc.INSTANCE, KnightCalc.INSTANCE, RookCalc.INSTANCE,
+            PawnCalc.INSTANCE
+    };
+
+    // Scratch buffer for packed moves (see PackedMove), reused from call to call. Transient because Gson
+    // serializes the ChessRules held by every ChessGame.
+    private transient final int[] moveBuffer = new int[PackedMove.MAX_MOVES];
 
+    public Collection<ChessMove> validMoves(ChessBoard board, ChessPosition startPosition) {
         // If no piece in given position, no valid moves
-        if (piece == null) return null;
+        if (board.getPiece(startPosition) == null) return null;
 
-        // Create a collection to hold any valid moves we find
+        // Collect the valid moves as packed ints, then unpack them
+        int[] moves = new int[MoveCalc.MAX_PIECE_MOVES];
+        int count = validMoves(board, startPosition.getSquare(), moves, 0);
         HashSet<ChessMove> validMoves = new HashSet<>();
-
-        // Get possible moves from piece
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, startPosition);
-
-        // Check each of the moves to see that it will not put our team in check
-        for (var possibleMove : possibleMoves) {
-            // Get the piece that is in the possible move's end position
-            // (we'll need to put it back since these moves are hypothetical)
-            var endPositionPiece = board.getPiece(possibleMove.getEndPosition());
-            // Try making the move
-            board.movePiece(possibleMove);
-
-            // Check that the king has not been put into check (or is no longer in check)
-            if (!isInCheck(board, piece.getTeamColor())) {
-                // Then we can add this as a valid move!
-                validMoves.add(possibleMove);
-            }
-
-            // Return the board to its original state
-            board.movePiece(possibleMove.reverseMove());
-            board.addPiece(possibleMove.getEndPosition(), endPositionPiece);
+        for (int i = 0; i < count; i++) {
+            validMoves.add(PackedMove.toChessMove(moves[i]));
         }
 
         return validMoves;
     }
 
-    public boolean isInCheck(ChessBoard board, TeamColor teamColor) {
-        // get positions of all pieces
-        var pieces = board.getAllPieces();
+    /**
+     * Writes the valid moves of the piece on the given square into the buffer as packed ints, starting at index
+     * count. Nothing is written if the square is empty.
+     *
+     * @return the new number of moves in the buffer
+     */
+    public int validMoves(ChessBoard board, int square, int[] moves, int count) {
+        ChessPiece piece = board.getPiece(square);
+        if (piece == null) return count;
+        return LegalMoveGenerator.generate(board, piece.getTeamColor(), 1L << square, moves, count);
+    }
 
-        // First find our King's position
-        ChessPosition kingPosition = null;
-        for (var positionPieceEntry : pieces.entrySet()) {
-            var pos = positionPieceEntry.getKey();
-            var piece = positionPieceEntry.getValue();
-            if (piece.getTeamColor() == teamColor && piece.getPieceType() == PieceType.KING) {
-                kingPosition = pos;
-                break;
-            }
+    /**
+     * Writes every valid move the given team can make into the buffer as packed ints, starting at index count.
+     *
+     * @return the new number of moves in the buffer
+     */
+    public int validMoves(ChessBoard board, TeamColor teamColor, int[] moves, int count) {
+        return LegalMoveGenerator.generate(board, teamColor, -1L, moves, count);
+    }
+
+    /**
+     * Writes every move the given team's pieces can make, without checking whether it leaves the team's king in
+     * check, into the buffer as packed ints, starting at index count.
+     *
+     * @return the new number of moves in the buffer
+     */
+    public int pseudoLegalMoves(ChessBoard board, TeamColor teamColor, int[] moves, int count) {
+        for (long pieces = board.getTeamPieces(teamColor); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            count = CALCULATORS[board.getPiece(square).getPieceType().ordinal()].pieceMoves(board, square, moves, count);
         }
+        return count;
+    }
+
+    public boolean isInCheck(ChessBoard board, TeamColor teamColor) {
+        // First find our King's position
+        int kingSquare = board.getKingSquare(teamColor);
 
         // If there is no King for this team, the team is not in check (just for running test cases)
-        if (kingPosition == null) return false;
-
-        // For each opposing piece, check if it could move into our King's position
-        for (var positionPieceEntry : pieces.entrySet()) {
-            ChessPosition pos = positionPieceEntry.getKey();
-            ChessPiece piece = positionPieceEntry.getValue();
-            if (piece.getTeamColor() != teamColor) {
-                // Get all the moves this enemy piece could make
-                Collection<ChessMove> enemyMoves = piece.pieceMoves(board, pos);
-                // If any of its moves could end in our king's position, we are in check
-                for (var enemyMove : enemyMoves) {
-                    if (enemyMove.getEndPosition().equals(kingPosition)) return true;
-                }
-            }
-        }
+        if (kingSquare < 0) return false;
+
+        // Look outward from the King for any opposing piece that attacks it
+        return Attacks.isAttacked(board, kingSquare, teamColor.opponent());
+    }
 
-        return false;
+    /**
+     * Works out check, checkmate and stalemate together: one check test, then a search that stops at the first
+     * legal move.
+     */
+    public ChessGame.GameStatus gameStatus(ChessBoard board, TeamColor teamColor) {
+        boolean inCheck = isInCheck(board, teamColor);
+        if (LegalMoveGenerator.hasLegalMove(board, teamColor, moveBuffer)) {
+            return inCheck ? ChessGame.GameStatus.CHECK : ChessGame.GameStatus.NORMAL;
+        }
+        return inCheck ? ChessGame.GameStatus.CHECKMATE : ChessGame.GameStatus.STALEMATE;
     }
 
     public boolean isInCheckmate(ChessBoard board, TeamColor teamColor) {
@@ -82,17 +96,7 @@ public class ChessRules {
     }
 
     public boolean isInStalemate(ChessBoard board, TeamColor teamColor) {
-        // get all pieces and positions
-        var pieces = board.getAllPieces();
-
         // Check if any of our team's pieces can move
-        for (var pos : pieces.keySet()) {
-            if (board.getPiece(pos).getTeamColor() == teamColor) {
-                var validMoves = validMoves(board, pos);
-                if (validMoves != null && !validMoves.isEmpty()) return false;
-            }
-        }
-
-        return true;
+        return !LegalMoveGenerator.hasLegalMove(board, teamColor, moveBuffer);
     }
 }
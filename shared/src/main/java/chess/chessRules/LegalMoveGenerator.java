@@ -0,0 +1,153 @@
+package chess.chessRules;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.chessRules.moveCalc.KingCalc;
+
+/**
+ * Generates only legal moves, without making each candidate move to see whether it leaves the king in check.
+ * <p>
+ * Before generating, it works out which pieces of the moving team are pinned to their king and, if the king is in
+ * check, which squares a move must land on to deal with the check (capture the checker or block its ray). Each
+ * piece's moves are then masked down to those squares, and a pinned piece's moves to the line of its pin. King
+ * moves are kept only if the destination is not attacked once the king has left its square. En passant, which
+ * takes a pawn off a square the move doesn't land on, is checked on its own by looking for attacks on the king
+ * with both pawns moved.
+ */
+public final class LegalMoveGenerator {
+
+    private LegalMoveGenerator() {}
+
+    /**
+     * Writes the legal moves of the given team's pieces on the squares in fromSquares into the buffer as packed
+     * ints (see PackedMove), starting at index count.
+     *
+     * @param fromSquares bitboard of the squares to generate moves from; pass -1L for every piece
+     * @return the new number of moves in the buffer
+     */
+    public static int generate(ChessBoard board, TeamColor team, long fromSquares, int[] moves, int count) {
+        return generate(board, team, fromSquares, moves, count, false);
+    }
+
+    /**
+     * @return true if the given team has at least one legal move. Stops as soon as it finds one, trying King moves
+     * first since they are the likeliest to exist.
+     */
+    public static boolean hasLegalMove(ChessBoard board, TeamColor team, int[] buffer) {
+        return generate(board, team, -1L, buffer, 0, true) > 0;
+    }
+
+    private static int generate(ChessBoard board, TeamColor team, long fromSquares, int[] moves, int count,
+                                boolean stopAtFirst) {
+        int start = count;
+        TeamColor enemy = team.opponent();
+        long ownPieces = board.getTeamPieces(team);
+        long occupied = board.getOccupied();
+        long movers = ownPieces & fromSquares;
+        int kingSquare = board.getKingSquare(team);
+
+        // Without a King nothing can be illegal (only happens when running test cases)
+        if (kingSquare < 0) return pseudoLegal(board, movers, -1L, 0, -1, moves, count, stopAtFirst);
+
+        long checkers = Attacks.attackersOf(board, kingSquare, enemy, occupied);
+
+        // King moves: the destination must not be attacked with the King lifted off its square, so sliders
+        // checking along the King's line still see through to the squares behind it
+        long king = 1L << kingSquare;
+        if ((movers & king) != 0) {
+            long targets = Attacks.kingAttacks(kingSquare) & ~ownPieces;
+            long enemyPieces = board.getTeamPieces(enemy);
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                if (Attacks.attackersOf(board, to, enemy, occupied ^ king) == 0) {
+                    int flags = (enemyPieces & (1L << to)) != 0 ? PackedMove.CAPTURE : 0;
+                    moves[count++] = PackedMove.of(kingSquare, to, flags);
+                }
+            }
+            if (checkers == 0) count = KingCalc.castlingMoves(board, kingSquare, team, moves, count);
+            movers ^= king;
+            if (stopAtFirst && count > start) return count;
+        }
+
+        // In double check only the King can move
+        if (Long.bitCount(checkers) > 1) return count;
+
+        // In single check every other move must capture the checker or block between it and the King
+        long checkMask = -1L;
+        if (checkers != 0) {
+            checkMask = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        }
+
+        long pinned = pinnedPieces(board, team, kingSquare);
+        return pseudoLegal(board, movers, checkMask, pinned, kingSquare, moves, count, stopAtFirst);
+    }
+
+    /**
+     * @return bitboard of the given team's pieces that are the only piece between an enemy slider and their King
+     */
+    public static long pinnedPieces(ChessBoard board, TeamColor team, int kingSquare) {
+        TeamColor enemy = team.opponent();
+        long occupied = board.getOccupied();
+        long enemyQueens = board.getPieces(enemy, PieceType.QUEEN);
+        long snipers = (Attacks.rookAttacks(kingSquare, 0) & (board.getPieces(enemy, PieceType.ROOK) | enemyQueens))
+                | (Attacks.bishopAttacks(kingSquare, 0) & (board.getPieces(enemy, PieceType.BISHOP) | enemyQueens));
+
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (Long.bitCount(blockers) == 1) pinned |= blockers & board.getTeamPieces(team);
+        }
+        return pinned;
+    }
+
+    /**
+     * Generates each mover's moves with its calculator, then keeps only those landing inside checkMask and, for a
+     * pinned piece, on the line through it and the King. With stopAtFirst it returns after the first piece that
+     * has a move.
+     *
+     * @param kingSquare the moving team's King, or -1 if it has none
+     */
+    private static int pseudoLegal(ChessBoard board, long movers, long checkMask, long pinned, int kingSquare,
+                                   int[] moves, int count, boolean stopAtFirst) {
+        int start = count;
+        boolean enPassantPossible = board.getEnPassantSquare() >= 0;
+        for (; movers != 0; movers &= movers - 1) {
+            if (stopAtFirst && count > start) break;
+            int from = Long.numberOfTrailingZeros(movers);
+            long allowed = checkMask;
+            if ((pinned & (1L << from)) != 0) allowed &= Attacks.line(kingSquare, from);
+
+            int end = ChessRules.CALCULATORS[board.getPiece(from).getPieceType().ordinal()]
+                    .pieceMoves(board, from, moves, count);
+            if (allowed == -1L && !enPassantPossible) {
+                count = end;
+                continue;
+            }
+            for (int i = count; i < end; i++) {
+                int move = moves[i];
+                boolean legal = PackedMove.isEnPassant(move)
+                        ? enPassantLegal(board, move, kingSquare)
+                        : (allowed & (1L << PackedMove.to(move))) != 0;
+                if (legal) moves[count++] = move;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * An en passant capture moves the pawn and removes another from beside it, which can open a line to the King
+     * that no pin check sees (two pawns between a Rook and the King on their row), and it can deal with a check by
+     * the pushed pawn without landing on it. So look for attackers of the King on the board as it would be.
+     */
+    private static boolean enPassantLegal(ChessBoard board, int move, int kingSquare) {
+        if (kingSquare < 0) return true;
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        long fromBit = 1L << from;
+        long victim = 1L << ((from & ~7) | (to & 7));
+        long occupied = (board.getOccupied() ^ fromBit ^ victim) | (1L << to);
+        TeamColor enemy = board.getPiece(from).getTeamColor().opponent();
+        return (Attacks.attackersOf(board, kingSquare, enemy, occupied) & ~victim) == 0;
+    }
+}
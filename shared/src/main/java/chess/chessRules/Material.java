@@ -0,0 +1,99 @@
+package chess.chessRules;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Material signatures: the number of each kind of piece on the board, other than Kings and pawns, packed into one
+ * int that ChessBoard keeps up to date as pieces come and go. Each count gets 4 bits, enough for every piece a
+ * side can have after promotions: white Bishops, white Knights, black Bishops and black Knights in the low 16 bits,
+ * then white Queens, white Rooks, black Queens and black Rooks. Pawns are left out because the pawn bitboards
+ * already say whether there are any.
+ * <p>
+ * A table indexed by the minor piece counts tells which material can never lead to checkmate, so a dead position
+ * is recognised without generating a move.
+ */
+public final class Material {
+
+    private Material() {}
+
+    // Signature bit position of each piece index's count (see ChessBoard.pieceIndex); -1 for Kings and pawns
+    private static final int[] SHIFTS = {
+            -1, 16, 0, 4, 20, -1,   // white King, Queen, Bishop, Knight, Rook, Pawn
+            -1, 24, 8, 12, 28, -1,  // black
+    };
+
+    // Anything outside the dead position table: a Queen, a Rook, or four or more of some minor piece
+    private static final int OUTSIDE_TABLE = 0xFFFFCCCC;
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private static final byte LIVE = 0;
+    private static final byte DEAD = 1;
+    private static final byte DEAD_IF_BISHOPS_SHARE_COLOUR = 2;
+
+    // Indexed by the four minor piece counts, 2 bits each (see tableIndex)
+    private static final byte[] DEAD_POSITIONS = new byte[256];
+
+    static {
+        for (int index = 0; index < DEAD_POSITIONS.length; index++) {
+            int whiteBishops = index & 3;
+            int whiteKnights = (index >>> 2) & 3;
+            int blackBishops = (index >>> 4) & 3;
+            int blackKnights = (index >>> 6) & 3;
+            // A lone minor piece can't mate, and Bishops can't if they all run on one colour of square
+            if (whiteBishops + whiteKnights + blackBishops + blackKnights <= 1) {
+                DEAD_POSITIONS[index] = DEAD;
+            } else if (whiteKnights + blackKnights == 0) {
+                DEAD_POSITIONS[index] = DEAD_IF_BISHOPS_SHARE_COLOUR;
+            } else {
+                DEAD_POSITIONS[index] = LIVE;
+            }
+        }
+    }
+
+    /**
+     * @return what a piece of the given index (see ChessBoard.pieceIndex) adds to the signature; 0 for Kings and
+     * pawns
+     */
+    public static int unit(int pieceIndex) {
+        int shift = SHIFTS[pieceIndex];
+        return shift < 0 ? 0 : 1 << shift;
+    }
+
+    /**
+     * @return how many pieces of the given team and type the signature counts; always 0 for Kings and pawns
+     */
+    public static int count(int signature, TeamColor team, PieceType type) {
+        int shift = SHIFTS[ChessBoard.pieceIndex(team, type)];
+        return shift < 0 ? 0 : (signature >>> shift) & 0xF;
+    }
+
+    /**
+     * @return true if no series of legal moves can end in checkmate: bare Kings, a single Bishop or Knight, or any
+     * number of Bishops that all stand on squares of one colour. Costs a table lookup.
+     */
+    public static boolean isDeadPosition(ChessBoard board) {
+        int signature = board.getMaterialSignature();
+        if ((signature & OUTSIDE_TABLE) != 0) return false;
+        long pawns = board.getPieces(TeamColor.WHITE, PieceType.PAWN) | board.getPieces(TeamColor.BLACK, PieceType.PAWN);
+        if (pawns != 0) return false;
+
+        return switch (DEAD_POSITIONS[tableIndex(signature)]) {
+            case DEAD -> true;
+            case DEAD_IF_BISHOPS_SHARE_COLOUR -> {
+                long bishops = board.getPieces(TeamColor.WHITE, PieceType.BISHOP)
+                        | board.getPieces(TeamColor.BLACK, PieceType.BISHOP);
+                yield (bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0;
+            }
+            default -> false;
+        };
+    }
+
+    /**
+     * Squeezes the four 4-bit minor piece counts, each known to be at most 3, into 2 bits each
+     */
+    private static int tableIndex(int signature) {
+        return (signature & 0x3) | ((signature >>> 2) & 0xC) | ((signature >>> 4) & 0x30) | ((signature >>> 6) & 0xC0);
+    }
+}
@@ -0,0 +1,247 @@
+package chess.chessRules;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Reads and writes moves as text, in UCI long algebraic notation (e2e4, e7e8q, castling as the King's two square
+ * move e1g1) and Standard Algebraic Notation (e4, Nxf3+, exd6, O-O, e8=Q#, Rad1). Text is matched against the legal
+ * moves of the position, so a parsed move is the generated packed move (see PackedMove), flags and all, ready for
+ * ChessBoard.makeMove, and SAN is written with just the disambiguation it needs.
+ * <p>
+ * Parsing reads the text in place and writing appends to a caller's StringBuilder. The legal moves go into buffers
+ * owned by the instance, so neither allocates. Not thread safe; use one per thread. The UCI methods need no
+ * position to write a move, so those are static.
+ */
+public final class MoveNotation {
+
+    // Indexed by PieceType.ordinal(); SAN leaves out the pawn's letter
+    private static final String PIECE_LETTERS = "KQBNRP";
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private final int[] moves = new int[PackedMove.MAX_MOVES];
+    private final int[] replies = new int[PackedMove.MAX_MOVES];
+
+    /**
+     * @return the legal move written in either UCI or SAN, or PackedMove.NONE if the text is neither, or names a move
+     * that is illegal or ambiguous
+     */
+    public int parse(CharSequence text, ChessBoard board, TeamColor team) {
+        int move = parseUci(text, board, team);
+        return move != PackedMove.NONE ? move : parseSan(text, board, team);
+    }
+
+    /**
+     * @return the legal move written in UCI notation, or PackedMove.NONE
+     */
+    public int parseUci(CharSequence text, ChessBoard board, TeamColor team) {
+        int length = text.length();
+        if (length != 4 && length != 5) return PackedMove.NONE;
+        int from = square(text, 0);
+        int to = square(text, 2);
+        if (from < 0 || to < 0) return PackedMove.NONE;
+        int wanted = PackedMove.of(from, to, 0);
+        if (length == 5) {
+            PieceType promotion = promotionType(Character.toUpperCase(text.charAt(4)));
+            if (promotion == null) return PackedMove.NONE;
+            wanted = PackedMove.of(from, to, promotion, 0);
+        }
+
+        int count = LegalMoveGenerator.generate(board, team, 1L << from, moves, 0);
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.sameMove(moves[i], wanted)) return moves[i];
+        }
+        return PackedMove.NONE;
+    }
+
+    /**
+     * Reads SAN leniently: the capture mark may be left out, the '=' before a promotion piece too, and check marks
+     * and annotations (+, #, !, ?) are ignored. Castling may be written with zeros.
+     *
+     * @return the legal move written in SAN, or PackedMove.NONE
+     */
+    public int parseSan(CharSequence text, ChessBoard board, TeamColor team) {
+        int end = text.length();
+        while (end > 0 && "+#!?".indexOf(text.charAt(end - 1)) >= 0) end--;
+        if (end == 0) return PackedMove.NONE;
+
+        int castle = castleFile(text, end);
+        if (castle >= 0) {
+            int count = LegalMoveGenerator.generate(board, team, board.getPieces(team, PieceType.KING), moves, 0);
+            for (int i = 0; i < count; i++) {
+                if (PackedMove.isCastle(moves[i]) && (PackedMove.to(moves[i]) & 7) == castle) return moves[i];
+            }
+            return PackedMove.NONE;
+        }
+
+        // Piece letter, if any, then disambiguation and capture mark, then the target square and promotion
+        int start = 0;
+        PieceType type = PieceType.PAWN;
+        int letter = PIECE_LETTERS.indexOf(text.charAt(0));
+        if (letter >= 0) {
+            type = PIECE_TYPES[letter];
+            start = 1;
+        }
+        PieceType promotion = null;
+        if (type == PieceType.PAWN && end - start >= 3) {
+            promotion = promotionType(text.charAt(end - 1));
+            if (promotion != null) {
+                end--;
+                if (text.charAt(end - 1) == '=') end--;
+            }
+        }
+        if (end - start < 2) return PackedMove.NONE;
+        int to = square(text, end - 2);
+        if (to < 0) return PackedMove.NONE;
+
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h' && fromFile < 0 && fromRank < 0) fromFile = c - 'a';
+            else if (c >= '1' && c <= '8' && fromRank < 0) fromRank = c - '1';
+            else if (c != 'x' || i != end - 3) return PackedMove.NONE;
+        }
+
+        int found = PackedMove.NONE;
+        int count = LegalMoveGenerator.generate(board, team, board.getPieces(team, type), moves, 0);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int from = PackedMove.from(move);
+            if (PackedMove.to(move) != to || PackedMove.promotion(move) != promotion) continue;
+            if ((fromFile >= 0 && (from & 7) != fromFile) || (fromRank >= 0 && (from >>> 3) != fromRank)) continue;
+            if (found != PackedMove.NONE) return PackedMove.NONE; // more than one piece fits
+            found = move;
+        }
+        return found;
+    }
+
+    /**
+     * Writes a legal move of the given team, as generated (with its flags), in SAN. The board is used to try the
+     * move for check and is left as it was.
+     */
+    public void appendSan(int move, ChessBoard board, TeamColor team, StringBuilder out) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (PackedMove.isCastle(move)) {
+            out.append((to & 7) == 6 ? "O-O" : "O-O-O");
+        } else {
+            PieceType type = board.getPiece(from).getPieceType();
+            if (type == PieceType.PAWN) {
+                if (PackedMove.isCapture(move)) appendFile(out, from);
+            } else {
+                out.append(PIECE_LETTERS.charAt(type.ordinal()));
+                appendDisambiguation(move, board, team, out);
+            }
+            if (PackedMove.isCapture(move)) out.append('x');
+            appendSquare(out, to);
+            PieceType promotion = PackedMove.promotion(move);
+            if (promotion != null) out.append('=').append(PIECE_LETTERS.charAt(promotion.ordinal()));
+        }
+
+        board.makeMove(move);
+        TeamColor opponent = team.opponent();
+        int king = board.getKingSquare(opponent);
+        if (king >= 0 && Attacks.isAttacked(board, king, team)) {
+            out.append(LegalMoveGenerator.hasLegalMove(board, opponent, replies) ? '+' : '#');
+        }
+        board.unmakeMove();
+    }
+
+    public String toSan(int move, ChessBoard board, TeamColor team) {
+        StringBuilder out = new StringBuilder(8);
+        appendSan(move, board, team, out);
+        return out.toString();
+    }
+
+    /**
+     * Writes a move in UCI notation
+     */
+    public static void appendUci(int move, StringBuilder out) {
+        appendSquare(out, PackedMove.from(move));
+        appendSquare(out, PackedMove.to(move));
+        PieceType promotion = PackedMove.promotion(move);
+        if (promotion != null) out.append(Character.toLowerCase(PIECE_LETTERS.charAt(promotion.ordinal())));
+    }
+
+    public static String toUci(int move) {
+        StringBuilder out = new StringBuilder(5);
+        appendUci(move, out);
+        return out.toString();
+    }
+
+    /**
+     * Adds the start file, rank or square when another piece of the same kind could also move to the same square:
+     * the file if that tells them apart, else the rank, else both
+     */
+    private void appendDisambiguation(int move, ChessBoard board, TeamColor team, StringBuilder out) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(from);
+        long others = board.getPieces(team, piece.getPieceType()) & ~(1L << from);
+        if (others == 0) return;
+
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        int count = LegalMoveGenerator.generate(board, team, others, moves, 0);
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.to(moves[i]) != to) continue;
+            int other = PackedMove.from(moves[i]);
+            ambiguous = true;
+            sameFile |= (other & 7) == (from & 7);
+            sameRank |= (other >>> 3) == (from >>> 3);
+        }
+        if (!ambiguous) return;
+        if (!sameFile) {
+            appendFile(out, from);
+        } else if (!sameRank) {
+            out.append((char) ('1' + (from >>> 3)));
+        } else {
+            appendSquare(out, from);
+        }
+    }
+
+    /**
+     * @return the file the King lands on if the text is a castling move (6 for O-O, 2 for O-O-O), otherwise -1
+     */
+    private static int castleFile(CharSequence text, int end) {
+        char o = text.charAt(0);
+        if (o != 'O' && o != '0') return -1;
+        if (end != 3 && end != 5) return -1;
+        for (int i = 1; i < end; i++) {
+            if (text.charAt(i) != (i % 2 == 1 ? '-' : o)) return -1;
+        }
+        return end == 3 ? 6 : 2;
+    }
+
+    private static PieceType promotionType(char letter) {
+        return switch (letter) {
+            case 'Q' -> PieceType.QUEEN;
+            case 'R' -> PieceType.ROOK;
+            case 'B' -> PieceType.BISHOP;
+            case 'N' -> PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the square written at the index, e.g. "e4", or -1 if there isn't one
+     */
+    private static int square(CharSequence text, int index) {
+        int file = text.charAt(index) - 'a';
+        int rank = text.charAt(index + 1) - '1';
+        return file < 0 || file > 7 || rank < 0 || rank > 7 ? -1 : rank * 8 + file;
+    }
+
+    private static void appendFile(StringBuilder out, int square) {
+        out.append((char) ('a' + (square & 7)));
+    }
+
+    private static void appendSquare(StringBuilder out, int square) {
+        appendFile(out, square);
+        out.append((char) ('1' + (square >>> 3)));
+    }
+}
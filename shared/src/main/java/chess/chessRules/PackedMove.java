@@ -0,0 +1,98 @@
+package chess.chessRules;
+
+import chess.ChessMove;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+
+/**
+ * Encodes a move in a single int, so move generation can fill primitive buffers instead of allocating ChessMove and
+ * ChessPosition objects.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square (see ChessPosition.getSquare). Bits 12-14 hold the
+ * promotion piece as PieceType.ordinal() + 1, or 0 for no promotion. The bits above that are flags describing the
+ * move. No real move encodes to 0, so 0 is used as "no move".
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PAWN_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;  // always together with CAPTURE
+    public static final int CASTLE = 1 << 18;      // a King move of two squares; the Rook moves too
+
+    /**
+     * Comfortably more than the number of moves any one side can have in a position
+     */
+    public static final int MAX_MOVES = 256;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7 << PROMOTION_SHIFT;
+    private static final int MOVE_MASK = 0x7FFF; // start, end and promotion, without the flags
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private PackedMove() {}
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    public static int of(int from, int to, PieceType promotion, int flags) {
+        return of(from, to, flags) | ((promotion.ordinal() + 1) << PROMOTION_SHIFT);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static PieceType promotion(int move) {
+        int promotion = (move & PROMOTION_MASK) >>> PROMOTION_SHIFT;
+        return promotion == 0 ? null : PIECE_TYPES[promotion - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION_MASK) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * @return true if the two moves have the same start, end and promotion, whatever their flags
+     */
+    public static boolean sameMove(int move, int other) {
+        return (move & MOVE_MASK) == (other & MOVE_MASK);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.fromSquare(from(move)), ChessPosition.fromSquare(to(move)), promotion(move));
+    }
+
+    /**
+     * Packs a ChessMove without any flags. Compare the result with sameMove to find the generated move it matches.
+     */
+    public static int fromChessMove(ChessMove move) {
+        int packed = of(move.getStartPosition().getSquare(), move.getEndPosition().getSquare(), 0);
+        if (move.getPromotionPiece() != null) {
+            packed |= (move.getPromotionPiece().ordinal() + 1) << PROMOTION_SHIFT;
+        }
+        return packed;
+    }
+}
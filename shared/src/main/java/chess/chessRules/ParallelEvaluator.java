@@ -0,0 +1,144 @@
+package chess.chessRules;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Spreads work over many positions across the threads of a ForkJoinPool.
+ * <p>
+ * Every task works on its own copy of its position's board, made before the task is handed to the pool, so workers
+ * never share a board and the caller's boards are never touched.
+ */
+public class ParallelEvaluator {
+
+    /**
+     * Something to compute for one position. The board is the worker's private copy, so it may be changed freely
+     * (e.g. with makeMove/unmakeMove).
+     */
+    public interface PositionFunction<T> {
+        T apply(ChessBoard board, TeamColor sideToMove);
+    }
+
+    private static final int DEFAULT_SEQUENTIAL_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+    private final int sequentialDepth;
+    private final ThreadLocal<Perft> perfts = ThreadLocal.withInitial(Perft::new);
+
+    /**
+     * Uses the common pool, which has one thread per available core
+     */
+    public ParallelEvaluator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_DEPTH);
+    }
+
+    /**
+     * @param sequentialDepth perft subtrees this deep or shallower are counted on one thread rather than split
+     */
+    public ParallelEvaluator(ForkJoinPool pool, int sequentialDepth) {
+        this.pool = pool;
+        this.sequentialDepth = Math.max(1, sequentialDepth);
+    }
+
+    /**
+     * Applies the function to every game's position in parallel.
+     *
+     * @return the results, in the same order as the games
+     */
+    public <T> List<T> evaluate(List<ChessGame> games, PositionFunction<T> function) {
+        ChessBoard[] boards = new ChessBoard[games.size()];
+        TeamColor[] sidesToMove = new TeamColor[games.size()];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new ChessBoard(games.get(i).getBoard());
+            sidesToMove[i] = games.get(i).getPlayerTurn();
+        }
+
+        Object[] results = new Object[boards.length];
+        pool.invoke(new EvaluateTask<>(boards, sidesToMove, function, results, 0, boards.length));
+
+        @SuppressWarnings("unchecked")
+        List<T> resultList = (List<T>) Arrays.asList(results);
+        return resultList;
+    }
+
+    /**
+     * Counts perft leaves (see Perft) in parallel. Every ply above the sequential depth is split into one task per
+     * legal move, so a large subtree is itself split up and work stealing keeps all threads busy however uneven the
+     * tree is.
+     */
+    public long perft(ChessBoard board, TeamColor team, int depth) {
+        if (depth <= sequentialDepth) return new Perft().perft(board, team, depth);
+        return pool.invoke(new PerftTask(new ChessBoard(board), team, depth));
+    }
+
+    private class PerftTask extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final TeamColor team;
+        private final int depth;
+
+        PerftTask(ChessBoard board, TeamColor team, int depth) {
+            this.board = board;
+            this.team = team;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= sequentialDepth) return perfts.get().perft(board, team, depth);
+
+            int[] moves = new int[PackedMove.MAX_MOVES];
+            int count = LegalMoveGenerator.generate(board, team, -1L, moves, 0);
+            List<PerftTask> children = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ChessBoard child = new ChessBoard(board);
+                child.makeMove(moves[i]);
+                children.add(new PerftTask(child, team.opponent(), depth - 1));
+            }
+
+            long leaves = 0;
+            for (PerftTask child : invokeAll(children)) {
+                leaves += child.join();
+            }
+            return leaves;
+        }
+    }
+
+    private static class EvaluateTask<T> extends RecursiveAction {
+        private final ChessBoard[] boards;
+        private final TeamColor[] sidesToMove;
+        private final PositionFunction<T> function;
+        private final Object[] results;
+        private final int start;
+        private final int end;
+
+        EvaluateTask(ChessBoard[] boards, TeamColor[] sidesToMove, PositionFunction<T> function, Object[] results,
+                     int start, int end) {
+            this.boards = boards;
+            this.sidesToMove = sidesToMove;
+            this.function = function;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            // Halve the range until each task holds a single position
+            if (end - start == 1) {
+                results[start] = function.apply(boards[start], sidesToMove[start]);
+            } else if (end - start > 1) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new EvaluateTask<>(boards, sidesToMove, function, results, start, middle),
+                        new EvaluateTask<>(boards, sidesToMove, function, results, middle, end));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package chess.chessRules;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft"). The counts for well-known positions are
+ * published, so any difference points at a move generation bug; the time taken measures move generation speed.
+ * <p>
+ * Moves are made and unmade on the board passed in, which is left as it was found. One move buffer is kept per ply
+ * and reused, so a run allocates nothing after the first call at a given depth. Not thread safe; use one Perft per
+ * thread.
+ */
+public class Perft {
+
+    private final ChessRules rules = new ChessRules();
+    private int[][] moveBuffers = new int[0][];
+
+    /**
+     * @return the number of legal move sequences of the given length from the game's position, with the game's
+     * player to move
+     */
+    public long perft(ChessGame game, int depth) {
+        return perft(game.getBoard(), game.getPlayerTurn(), depth);
+    }
+
+    /**
+     * @return the number of legal move sequences of the given length from the board's position, with the given
+     * team to move
+     */
+    public long perft(ChessBoard board, TeamColor team, int depth) {
+        if (depth <= 0) return 1;
+        ensureBuffers(depth);
+        return countLeaves(board, team, depth, 0);
+    }
+
+    /**
+     * Splits perft at the root: the leaf count below each legal first move, in generation order. The values add up
+     * to perft(board, team, depth). Comparing these against another engine's narrows down where counts differ.
+     */
+    public Map<ChessMove, Long> divide(ChessBoard board, TeamColor team, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        if (depth <= 0) return counts;
+        ensureBuffers(depth);
+
+        int[] moves = moveBuffers[0];
+        int count = rules.validMoves(board, team, moves, 0);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            long leaves = depth == 1 ? 1 : countLeaves(board, team.opponent(), depth - 1, 1);
+            board.unmakeMove();
+            counts.put(PackedMove.toChessMove(moves[i]), leaves);
+        }
+        return counts;
+    }
+
+    private long countLeaves(ChessBoard board, TeamColor team, int depth, int ply) {
+        int[] moves = moveBuffers[ply];
+        int count = rules.validMoves(board, team, moves, 0);
+
+        // Every legal move at the last ply is a leaf, so there is no need to make them
+        if (depth == 1) return count;
+
+        long leaves = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            leaves += countLeaves(board, team.opponent(), depth - 1, ply + 1);
+            board.unmakeMove();
+        }
+        return leaves;
+    }
+
+    private void ensureBuffers(int depth) {
+        if (moveBuffers.length >= depth) return;
+        int[][] buffers = new int[depth][];
+        for (int ply = 0; ply < depth; ply++) {
+            buffers[ply] = ply < moveBuffers.length ? moveBuffers[ply] : new int[PackedMove.MAX_MOVES];
+        }
+        moveBuffers = buffers;
+    }
+}
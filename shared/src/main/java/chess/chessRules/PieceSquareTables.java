@@ -0,0 +1,153 @@
+package chess.chessRules;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * What each piece is worth on each square, once for the middlegame and once for the endgame, material included.
+ * ChessBoard adds and subtracts these as pieces come and go, so the engine's evaluation is always up to date and
+ * costs a few additions to read. They live with the rules, beside Material, so the board needn't know the engine.
+ * <p>
+ * Scores are in centipawns from white's point of view, so black pieces count negative. The square tables are the
+ * "Simplified Evaluation Function" ones, with endgame tables for the King (centralize) and pawns (advance); the
+ * other pieces use their middlegame table in the endgame too.
+ */
+public final class PieceSquareTables {
+
+    /**
+     * Game phase of the starting position: 1 per knight or bishop, 2 per rook, 4 per queen
+     */
+    public static final int MAX_PHASE = 24;
+
+    // Indexed by PieceType.ordinal(): KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] MIDDLEGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+    private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+
+    // Drawn from white's side, with the 8th rank on top as ChessBoard.toString prints it
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] PAWN_MIDDLEGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    // [ChessBoard.pieceIndex()][square], signed for the piece's color
+    private static final int[][] MIDDLEGAME = new int[12][64];
+    private static final int[][] ENDGAME = new int[12][64];
+    private static final int[] PHASE = new int[12];
+
+    static {
+        int[][] middlegameTables = {KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDDLEGAME};
+        int[][] endgameTables = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME};
+        for (PieceType type : PieceType.values()) {
+            int t = type.ordinal();
+            int white = ChessBoard.pieceIndex(TeamColor.WHITE, type);
+            int black = ChessBoard.pieceIndex(TeamColor.BLACK, type);
+            for (int square = 0; square < 64; square++) {
+                // The tables are drawn rank 8 first, so flip the rank for white; black reads them as drawn
+                MIDDLEGAME[white][square] = MIDDLEGAME_VALUES[t] + middlegameTables[t][square ^ 56];
+                ENDGAME[white][square] = ENDGAME_VALUES[t] + endgameTables[t][square ^ 56];
+                MIDDLEGAME[black][square] = -(MIDDLEGAME_VALUES[t] + middlegameTables[t][square]);
+                ENDGAME[black][square] = -(ENDGAME_VALUES[t] + endgameTables[t][square]);
+            }
+            PHASE[white] = PHASE_WEIGHTS[t];
+            PHASE[black] = PHASE_WEIGHTS[t];
+        }
+    }
+
+    private PieceSquareTables() {}
+
+    /**
+     * @param pieceIndex see ChessBoard.pieceIndex
+     */
+    public static int middlegame(int pieceIndex, int square) {
+        return MIDDLEGAME[pieceIndex][square];
+    }
+
+    public static int endgame(int pieceIndex, int square) {
+        return ENDGAME[pieceIndex][square];
+    }
+
+    /**
+     * @return how much the piece counts towards the game phase (see MAX_PHASE)
+     */
+    public static int phase(int pieceIndex) {
+        return PHASE[pieceIndex];
+    }
+}
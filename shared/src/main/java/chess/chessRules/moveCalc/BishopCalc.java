@@ -1,37 +1,18 @@
 package chess.chessRules.moveCalc;
 
 import chess.ChessBoard;
-import chess.ChessMove;
-import chess.ChessPiece;
-import chess.ChessPosition;
-
-import java.util.Collection;
-import java.util.HashSet;
+import chess.ChessGame.TeamColor;
+import chess.chessRules.Attacks;
 
 public class BishopCalc implements MoveCalc {
+    public static final BishopCalc INSTANCE = new BishopCalc();
+
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        ChessPiece myPiece = board.getPiece(myPosition);
+    public int pieceMoves(ChessBoard board, int square, int[] moves, int count) {
+        TeamColor team = board.getPiece(square).getTeamColor();
 
-        // 4 iterations for 4 directions: {0: NW, 1: NE, 2: SE, 3: SW}
-        for (int k = 0; k < 4; k++) {
-            int row = myPosition.getRow();
-            int col = myPosition.getColumn();
-            while (true) {
-                row = switch (k) {
-                    case 0, 1 -> row + 1;
-                    case 2, 3 -> row - 1;
-                    default -> row;
-                };
-                col = switch (k) {
-                    case 0, 3 -> col - 1;
-                    case 1, 2 -> col + 1;
-                    default -> col;
-                };
-                if (RookCalc.checkOccupantAndAddMove(board, myPosition, moves, myPiece, row, col)) break;
-            }
-        }
-        return moves;
+        // Every square along the 4 diagonals up to the first blocker, minus our own pieces
+        long targets = Attacks.bishopAttacks(square, board.getOccupied()) & ~board.getTeamPieces(team);
+        return MoveCalc.addTargetMoves(square, targets, board.getTeamPieces(team.opponent()), moves, count);
     }
 }
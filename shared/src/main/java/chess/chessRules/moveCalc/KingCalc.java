@@ -1,41 +1,54 @@
 package chess.chessRules.moveCalc;
 
 import chess.ChessBoard;
-import chess.ChessMove;
+import chess.ChessGame.TeamColor;
 import chess.ChessPiece;
-import chess.ChessPosition;
-
-import java.util.Collection;
-import java.util.HashSet;
+import chess.chessRules.Attacks;
+import chess.chessRules.PackedMove;
 
 public class KingCalc implements MoveCalc {
+    public static final KingCalc INSTANCE = new KingCalc();
+
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        ChessPiece myPiece = board.getPiece(myPosition);
+    public int pieceMoves(ChessBoard board, int square, int[] moves, int count) {
+        TeamColor team = board.getPiece(square).getTeamColor();
+
+        // The 8 neighbouring squares that stay on the board, minus our own pieces
+        long targets = Attacks.kingAttacks(square) & ~board.getTeamPieces(team);
+        count = MoveCalc.addTargetMoves(square, targets, board.getTeamPieces(team.opponent()), moves, count);
+        return castlingMoves(board, square, team, moves, count);
+    }
 
-        // 8 iterations for 8 directions: {0: N, 1: NE, 2: E, 3: SE, 4: S, 5: SW, 6: W, 7: NW}
-        for (int k = 0; k < 8; k++) {
-            int row = myPosition.getRow();
-            int col = myPosition.getColumn();
-            row = switch (k) {
-                case 0, 1, 7 -> row + 1;
-                case 3, 4, 5 -> row - 1;
-                default -> row;
-            };
-            col = switch (k) {
-                case 1, 2, 3 -> col + 1;
-                case 5, 6, 7 -> col - 1;
-                default -> col;
-            };
-            if (row < 1 || row > 8 || col < 1 || col > 8) continue; // if out of bounds go to next iteration/position
-            ChessPosition newPosition = new ChessPosition(row, col);
-            ChessMove possibleMove = new ChessMove(myPosition, newPosition);
-            ChessPiece occupyingPiece = board.getPiece(newPosition);
-            if (occupyingPiece == null || !occupyingPiece.getTeamColor().equals(myPiece.getTeamColor())) {
-                moves.add(possibleMove);
-            } // if no one there or opposite team, add move but don't break
+    /**
+     * Adds the castling moves of the King on the given square: it still has the right, is on its home square with
+     * the Rook on the corner, the squares between them are empty, and the King is not in check and does not pass
+     * through or land on an attacked square. These are complete legality checks, so the moves are legal as added.
+     */
+    public static int castlingMoves(ChessBoard board, int square, TeamColor team, int[] moves, int count) {
+        int home = team == TeamColor.WHITE ? 4 : 60;
+        int rights = board.getCastlingRights() & (team == TeamColor.WHITE
+                ? ChessBoard.WHITE_KINGSIDE | ChessBoard.WHITE_QUEENSIDE
+                : ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE);
+        if (square != home || rights == 0) return count;
+
+        TeamColor enemy = team.opponent();
+        if (Attacks.isAttacked(board, square, enemy)) return count;
+        long occupied = board.getOccupied();
+        long rooks = board.getPieces(team, ChessPiece.PieceType.ROOK);
+
+        int kingside = team == TeamColor.WHITE ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE;
+        if ((rights & kingside) != 0 && (rooks & (1L << (square + 3))) != 0
+                && (occupied & (3L << (square + 1))) == 0
+                && !Attacks.isAttacked(board, square + 1, enemy) && !Attacks.isAttacked(board, square + 2, enemy)) {
+            moves[count++] = PackedMove.of(square, square + 2, PackedMove.CASTLE);
+        }
+        // Queenside the Rook passes the square next to it, which only has to be empty
+        int queenside = team == TeamColor.WHITE ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE;
+        if ((rights & queenside) != 0 && (rooks & (1L << (square - 4))) != 0
+                && (occupied & (7L << (square - 3))) == 0
+                && !Attacks.isAttacked(board, square - 1, enemy) && !Attacks.isAttacked(board, square - 2, enemy)) {
+            moves[count++] = PackedMove.of(square, square - 2, PackedMove.CASTLE);
         }
-        return moves;
+        return count;
     }
 }
@@ -2,10 +2,60 @@ package chess.chessRules.moveCalc;
 
 import chess.ChessBoard;
 import chess.ChessMove;
+import chess.ChessPiece.PieceType;
 import chess.ChessPosition;
+import chess.chessRules.PackedMove;
 
 import java.util.Collection;
+import java.util.HashSet;
 
 public interface MoveCalc {
-    Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition);
+    /**
+     * More than any single piece can have (a queen in the middle of an open board has 27)
+     */
+    int MAX_PIECE_MOVES = 32;
+
+    /**
+     * @return the shared calculator for the given piece type. Calculators hold no state, so one of each is enough.
+     */
+    static MoveCalc of(PieceType type) {
+        return switch (type) {
+            case KING -> KingCalc.INSTANCE;
+            case QUEEN -> QueenCalc.INSTANCE;
+            case BISHOP -> BishopCalc.INSTANCE;
+            case KNIGHT -> KnightCalc.INSTANCE;
+            case ROOK -> RookCalc.INSTANCE;
+            case PAWN -> PawnCalc.INSTANCE;
+        };
+    }
+
+    /**
+     * Writes the moves of the piece on the given square into a caller-supplied buffer as packed ints (see
+     * PackedMove), starting at index count. Nothing is allocated.
+     *
+     * @return the new number of moves in the buffer
+     */
+    int pieceMoves(ChessBoard board, int square, int[] moves, int count);
+
+    default Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
+        int[] moves = new int[MAX_PIECE_MOVES];
+        int count = pieceMoves(board, myPosition.getSquare(), moves, 0);
+        HashSet<ChessMove> pieceMoves = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            pieceMoves.add(PackedMove.toChessMove(moves[i]));
+        }
+        return pieceMoves;
+    }
+
+    /**
+     * Adds a plain move from the given square to each target square, flagging the ones that land on an enemy.
+     */
+    static int addTargetMoves(int from, long targets, long enemies, int[] moves, int count) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies & (1L << to)) != 0 ? PackedMove.CAPTURE : 0;
+            moves[count++] = PackedMove.of(from, to, flags);
+        }
+        return count;
+    }
 }
@@ -1,86 +1,60 @@
 package chess.chessRules.moveCalc;
 
 import chess.ChessBoard;
-import chess.ChessMove;
-import chess.ChessPiece;
-import chess.ChessPosition;
-
-import java.util.Collection;
-import java.util.HashSet;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.chessRules.Attacks;
+import chess.chessRules.PackedMove;
 
 public class PawnCalc implements MoveCalc{
+    public static final PawnCalc INSTANCE = new PawnCalc();
+
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        ChessPiece myPiece = board.getPiece(myPosition);
-        boolean forward1Unoccupied = false; // flag for use in for loop below
+    public int pieceMoves(ChessBoard board, int square, int[] moves, int count) {
+        TeamColor team = board.getPiece(square).getTeamColor();
+        int forward = team == TeamColor.WHITE ? 8 : -8;
+        int startRow = team == TeamColor.WHITE ? 1 : 6; // rows counted from 0 here, as in square indexes
+        int enPassantRow = team == TeamColor.WHITE ? 5 : 2;
+        long empty = ~board.getOccupied();
+
+        // Forward 1 if the square is empty, then forward 2 from the starting row if both squares are empty
+        int oneForward = square + forward;
+        if (oneForward >= 0 && oneForward < 64 && (empty & (1L << oneForward)) != 0) {
+            count = addPawnMove(square, oneForward, 0, moves, count);
+            int twoForward = oneForward + forward;
+            if (square >>> 3 == startRow && (empty & (1L << twoForward)) != 0) {
+                moves[count++] = PackedMove.of(square, twoForward, PackedMove.DOUBLE_PAWN_PUSH);
+            }
+        }
 
-        // 4 iterations for 4 possible moves: {0: forward 1, 1: capture left, 2: capture right, 3: forward 2}
+        // Diagonal captures
+        long captures = Attacks.pawnAttacks(team, square) & board.getTeamPieces(team.opponent());
+        for (; captures != 0; captures &= captures - 1) {
+            count = addPawnMove(square, Long.numberOfTrailingZeros(captures), PackedMove.CAPTURE, moves, count);
+        }
 
-        for (int k = 0; k < 4; k++) {
-            int row = myPosition.getRow();
-            int col = myPosition.getColumn();
-            int reverse = switch (myPiece.getTeamColor()) {
-                case WHITE -> 1;
-                case BLACK -> -1;
-            };
-            row = switch (k) {
-                case 0, 1, 2 -> row + reverse;
-                case 3 -> row + 2 * reverse;
-                default -> row;
-            };
-            col = switch (k) {
-                case 1 -> col - reverse;
-                case 2 -> col + reverse;
-                default -> col;
-            };
-            if (row < 1 || row > 8 || col < 1 || col > 8) continue; // if out of bounds go to next iteration/position
-            ChessPosition newPosition = new ChessPosition(row, col);
-            ChessMove possibleMove = new ChessMove(myPosition, newPosition);
-            ChessPiece occupyingPiece = board.getPiece(newPosition);
+        // En passant onto the square an enemy pawn skipped with its double push on the last move. The square must be
+        // on the row behind the enemy's pawns, or it was this team's own pawn that skipped it.
+        int enPassantSquare = board.getEnPassantSquare();
+        if (enPassantSquare >>> 3 == enPassantRow
+                && (Attacks.pawnAttacks(team, square) & (1L << enPassantSquare)) != 0) {
+            moves[count++] = PackedMove.of(square, enPassantSquare, PackedMove.CAPTURE | PackedMove.EN_PASSANT);
+        }
 
-            // check if the move is possible / allowed
-            boolean movePossible = false;
-            switch (k) {
-                case 0:
-                    if (occupyingPiece == null) {
-                        movePossible = true;
-                        forward1Unoccupied = true;
-                    }
-                    break;
-                case 1, 2:
-                    if (occupyingPiece != null && !occupyingPiece.getTeamColor().equals(myPiece.getTeamColor())) {
-                        movePossible = true;
-                    }
-                    break;
-                case 3:
-                    boolean canMove2Forward = switch (myPiece.getTeamColor()) {
-                        case WHITE -> myPosition.getRow() == 2;
-                        case BLACK -> myPosition.getRow() == 7;
-                    };
-                    if (canMove2Forward && forward1Unoccupied && occupyingPiece == null) {
-                        movePossible = true;
-                    }
-                    break;
-            }
+        return count;
+    }
 
-            // Take care of promotions
-            if (movePossible) {
-                boolean promotion = switch (myPiece.getTeamColor()) {
-                    case WHITE -> row == 8;
-                    case BLACK -> row == 1;
-                };
-                if (promotion) {
-                    moves.add(new ChessMove(myPosition, newPosition, ChessPiece.PieceType.QUEEN));
-                    moves.add(new ChessMove(myPosition, newPosition, ChessPiece.PieceType.BISHOP));
-                    moves.add(new ChessMove(myPosition, newPosition, ChessPiece.PieceType.KNIGHT));
-                    moves.add(new ChessMove(myPosition, newPosition, ChessPiece.PieceType.ROOK));
-                } else {
-                    moves.add(possibleMove);
-                }
-            }
+    private static int addPawnMove(int from, int to, int flags, int[] moves, int count) {
+        // Take care of promotions
+        int toRow = to >>> 3;
+        if (toRow == 0 || toRow == 7) {
+            moves[count++] = PackedMove.of(from, to, PieceType.QUEEN, flags);
+            moves[count++] = PackedMove.of(from, to, PieceType.BISHOP, flags);
+            moves[count++] = PackedMove.of(from, to, PieceType.KNIGHT, flags);
+            moves[count++] = PackedMove.of(from, to, PieceType.ROOK, flags);
+        } else {
+            moves[count++] = PackedMove.of(from, to, flags);
         }
-
-        return moves;
+        return count;
     }
 }
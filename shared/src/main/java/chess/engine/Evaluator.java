@@ -0,0 +1,51 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.chessRules.PieceSquareTables;
+
+/**
+ * Static evaluation of a position, in centipawns from the point of view of the side to move.
+ */
+public final class Evaluator {
+
+    // Rough piece values for move ordering, indexed by PieceType.ordinal(): KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    private Evaluator() {}
+
+    /**
+     * Blends the board's middlegame and endgame scores by game phase, so piece placement shifts smoothly from
+     * middlegame to endgame priorities (e.g. King safety to King activity) as pieces come off. The board keeps both
+     * scores up to date, so apart from the pawn structure this is a few additions.
+     *
+     * @return the evaluation, positive when the given team is better
+     */
+    public static int evaluate(ChessBoard board, TeamColor sideToMove) {
+        return evaluate(board, sideToMove, PawnStructure.evaluate(board));
+    }
+
+    /**
+     * Same as evaluate(board, sideToMove), with the pawn structure looked up in the given table
+     */
+    public static int evaluate(ChessBoard board, TeamColor sideToMove, PawnHashTable pawnTable) {
+        return evaluate(board, sideToMove, pawnTable.probe(board));
+    }
+
+    private static int evaluate(ChessBoard board, TeamColor sideToMove, int pawnStructure) {
+        int middlegame = board.getMiddlegameScore() + PawnStructure.middlegame(pawnStructure);
+        int endgame = board.getEndgameScore() + PawnStructure.endgame(pawnStructure);
+        int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase))
+                / PieceSquareTables.MAX_PHASE;
+        return sideToMove == TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return the value of a piece of the given type, 0 for the King
+     */
+    public static int pieceValue(PieceType type) {
+        return PIECE_VALUES[type.ordinal()];
+    }
+}
@@ -0,0 +1,171 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.chessRules.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Decides the order a Search tries moves in, which is what makes alpha-beta prune: the sooner a good move is
+ * searched, the sooner the rest are cut off. Moves are tried in stages:
+ * <ol>
+ * <li>the hash move (or the previous iteration's principal variation move)</li>
+ * <li>captures and promotions, most valuable victim first and, among those, least valuable attacker first</li>
+ * <li>the two killer moves of the ply: quiet moves that caused a cutoff at this ply elsewhere in the tree</li>
+ * <li>the counter move: the quiet move that last refuted the opponent's previous move</li>
+ * <li>other quiet moves, by history score: how often and how deep they have caused cutoffs</li>
+ * </ol>
+ * The legal move generator produces all moves at once, so the stages are score bands rather than separate
+ * generation passes. Moves are picked one at a time (selection sort), so no time is spent ordering the moves left
+ * unsearched after a cutoff, often all but the first.
+ * <p>
+ * All tables are primitive arrays owned by one Search, so they need no synchronization.
+ */
+class MoveOrdering {
+
+    private static final int FIRST_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 26;
+    private static final int COUNTER_MOVE_SCORE = KILLER_SCORE - 2;
+    private static final int HISTORY_LIMIT = 1 << 24; // keeps history scores below the counter move
+
+    private final int[][] scores = new int[Search.MAX_PLY][PackedMove.MAX_MOVES];
+    private final int[][] killers = new int[Search.MAX_PLY][2];
+    private final int[] history = new int[2 * 64 * 64];    // [color][from][to]
+    private final int[] counterMoves = new int[12 * 64];    // [piece index of the previous move][its to square]
+    private boolean enabled = true;
+    private boolean reverseTies;
+
+    /**
+     * @param enabled false to leave moves in the order they are generated, as a baseline to measure the ordering
+     *                against. Captures are still put first in the quiescence search, which needs them together.
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Clears the killers, which belong to the previous search's tree, and fades the history so it keeps what was
+     * learned without drowning out what the new search finds
+     */
+    void newSearch() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = PackedMove.NONE;
+            plyKillers[1] = PackedMove.NONE;
+        }
+        for (int i = 0; i < history.length; i++) history[i] >>= 3;
+    }
+
+    /**
+     * @param reverseTies true to pick the last rather than the first of equally scored moves, so a ParallelSearch
+     *                    helper can try quiet moves in another order than a thread starting at the same depth
+     */
+    void setReverseTies(boolean reverseTies) {
+        this.reverseTies = reverseTies;
+    }
+
+    /**
+     * Scores the moves for picking. Call before making any of them.
+     *
+     * @param firstMove     move to try first, or PackedMove.NONE
+     * @param previousMove  the opponent's move that led here, or PackedMove.NONE at the root
+     * @param previousPiece piece index (ChessBoard.pieceIndex) of the piece that made previousMove
+     */
+    void scoreMoves(ChessBoard board, TeamColor team, int[] moves, int count, int ply, int firstMove,
+                    int previousMove, int previousPiece) {
+        int[] plyScores = scores[ply];
+        if (!enabled) {
+            // Equal scores: pick keeps the generated order
+            Arrays.fill(plyScores, 0, count, 0);
+            return;
+        }
+        int[] plyKillers = killers[ply];
+        int counterMove = previousMove == PackedMove.NONE
+                ? PackedMove.NONE : counterMoves[previousPiece * 64 + PackedMove.to(previousMove)];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == firstMove) plyScores[i] = FIRST_SCORE;
+            else if (isTactical(move)) plyScores[i] = captureScore(board, move);
+            else if (move == plyKillers[0]) plyScores[i] = KILLER_SCORE;
+            else if (move == plyKillers[1]) plyScores[i] = KILLER_SCORE - 1;
+            else if (move == counterMove) plyScores[i] = COUNTER_MOVE_SCORE;
+            else plyScores[i] = history[historyIndex(team, move)];
+        }
+    }
+
+    /**
+     * Scores captures and promotions only, for the quiescence search
+     */
+    void scoreCaptures(ChessBoard board, int[] moves, int count, int ply) {
+        int[] plyScores = scores[ply];
+        for (int i = 0; i < count; i++) {
+            plyScores[i] = isTactical(moves[i]) ? captureScore(board, moves[i]) : 0;
+        }
+    }
+
+    /**
+     * Moves the best scored of moves[index..count) to index and returns it
+     */
+    int pick(int[] moves, int count, int index, int ply) {
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (plyScores[i] > plyScores[best] || (reverseTies && plyScores[i] == plyScores[best])) best = i;
+        }
+        int move = moves[best];
+        moves[best] = moves[index];
+        moves[index] = move;
+        int score = plyScores[best];
+        plyScores[best] = plyScores[index];
+        plyScores[index] = score;
+        return move;
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff, so it is tried early at this ply and after the same
+     * previous move elsewhere, and gains history in proportion to the depth of the subtree it cut off
+     */
+    void recordCutoff(TeamColor team, int move, int ply, int depth, int previousMove, int previousPiece) {
+        if (!enabled || isTactical(move)) return;
+
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        if (previousMove != PackedMove.NONE) counterMoves[previousPiece * 64 + PackedMove.to(previousMove)] = move;
+
+        int index = historyIndex(team, move);
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) history[i] >>= 1;
+        }
+    }
+
+    static boolean isTactical(int move) {
+        return PackedMove.isCapture(move) || PackedMove.isPromotion(move);
+    }
+
+    /**
+     * MVV-LVA: victim value dominates, the attacker's value breaks ties. A promotion counts as capturing the piece
+     * it promotes to.
+     */
+    private static int captureScore(ChessBoard board, int move) {
+        int value = 0;
+        if (PackedMove.isCapture(move)) {
+            ChessPiece victim = board.getPiece(PackedMove.to(move));
+            // En passant leaves the destination empty; the victim is a pawn
+            value += victim == null ? Evaluator.PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()]
+                    : Evaluator.PIECE_VALUES[victim.getPieceType().ordinal()];
+        }
+        if (PackedMove.isPromotion(move)) value += Evaluator.PIECE_VALUES[PackedMove.promotion(move).ordinal()];
+        ChessPiece attacker = board.getPiece(PackedMove.from(move));
+        return CAPTURE_SCORE + value * 16 - Evaluator.PIECE_VALUES[attacker.getPieceType().ordinal()] / 16;
+    }
+
+    private static int historyIndex(TeamColor team, int move) {
+        return team.ordinal() * 4096 + PackedMove.from(move) * 64 + PackedMove.to(move);
+    }
+}
@@ -0,0 +1,179 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.chessRules.LegalMoveGenerator;
+import chess.chessRules.PackedMove;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Reads an opening book in the Polyglot .bin format, so a bot can play known opening moves without searching.
+ * <p>
+ * The file is a list of 16-byte big-endian entries sorted by key: the 64-bit Zobrist key of a position, the move
+ * (to square in bits 0-5, from square in bits 6-11, promotion piece in bits 12-14 as 1 Knight to 4 Queen; castling
+ * is written as the King capturing its own Rook), a 16-bit weight and 32 bits of learning data, which is ignored.
+ * The file is memory mapped rather than read, so the book takes no heap and only the pages a probe touches are
+ * loaded; a probe is a binary search over the entries.
+ * <p>
+ * Positions are looked up with ChessBoard.getZobristKey, which uses Polyglot's keys (see Zobrist), so books made by
+ * other programs work as well as those from OpeningBookBuilder. Book moves are checked against the legal moves, so a
+ * bad entry can't produce an illegal move.
+ * <p>
+ * Thread safe: probes only read the mapping, and each thread generates legal moves into a buffer of its own.
+ */
+public class OpeningBook {
+
+    static final int ENTRY_SIZE = 16;
+    private static final int MOVE_OFFSET = 8;
+    private static final int WEIGHT_OFFSET = 10;
+
+    // Polyglot promotion codes, indexed by PieceType.ordinal(): King, Queen, Bishop, Knight, Rook, Pawn
+    private static final int[] PROMOTION_CODES = {0, 4, 2, 1, 3, 0};
+
+    private final MappedByteBuffer entries;
+    private final int size;
+    // The position's legal moves, generated once per probe; one buffer per thread keeps probes thread safe
+    private final ThreadLocal<int[]> legalMoves = ThreadLocal.withInitial(() -> new int[PackedMove.MAX_MOVES]);
+
+    private OpeningBook(MappedByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * Maps the book file into memory. The file is closed again straight away; the mapping stays valid until the
+     * book is garbage collected.
+     *
+     * @throws IOException if the file can't be read or is not a whole number of entries long
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % ENTRY_SIZE != 0) throw new IOException("Not a Polyglot book: " + path);
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+        }
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the book move with the highest weight for the player to move, or PackedMove.NONE if the position is
+     * not in the book or the game is over
+     */
+    public int probe(ChessGame game) {
+        if (game.getPlayerTurn() == null) return PackedMove.NONE;
+        return probe(game.getBoard(), game.getPlayerTurn());
+    }
+
+    /**
+     * @return the book move with the highest weight, or PackedMove.NONE if the position is not in the book
+     */
+    public int probe(ChessBoard board, TeamColor sideToMove) {
+        long key = board.getZobristKey(sideToMove);
+        int first = firstEntry(key);
+        if (first == size || entryKey(first) != key) return PackedMove.NONE;
+        int[] moves = legalMoves.get();
+        int count = LegalMoveGenerator.generate(board, sideToMove, -1L, moves, 0);
+
+        int bestMove = PackedMove.NONE;
+        int bestWeight = 0;
+        for (int i = first; i < size && entryKey(i) == key; i++) {
+            int weight = weight(i);
+            if (weight <= bestWeight) continue;
+            int move = legalMove(moves, count, polyglotMove(i));
+            if (move != PackedMove.NONE) {
+                bestMove = move;
+                bestWeight = weight;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Picks one of the book moves at random, each with probability proportional to its weight, so a bot doesn't
+     * play the same opening every game. Entries that aren't legal in the position are left out of the draw.
+     *
+     * @return the chosen move, or PackedMove.NONE if the position has no legal book move
+     */
+    public int probe(ChessBoard board, TeamColor sideToMove, Random random) {
+        long key = board.getZobristKey(sideToMove);
+        int first = firstEntry(key);
+        if (first == size || entryKey(first) != key) return PackedMove.NONE;
+        int[] moves = legalMoves.get();
+        int count = LegalMoveGenerator.generate(board, sideToMove, -1L, moves, 0);
+
+        long totalWeight = 0;
+        for (int i = first; i < size && entryKey(i) == key; i++) {
+            if (legalMove(moves, count, polyglotMove(i)) != PackedMove.NONE) totalWeight += weight(i);
+        }
+        if (totalWeight == 0) return PackedMove.NONE;
+
+        long pick = (long) (random.nextDouble() * totalWeight);
+        for (int i = first; i < size && entryKey(i) == key; i++) {
+            int move = legalMove(moves, count, polyglotMove(i));
+            if (move == PackedMove.NONE) continue;
+            pick -= weight(i);
+            if (pick < 0) return move;
+        }
+        return PackedMove.NONE;
+    }
+
+    /**
+     * @return the Polyglot encoding of a packed move; castling becomes the King moving onto its Rook
+     */
+    public static int toPolyglot(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (PackedMove.isCastle(move)) to = to > from ? from + 3 : from - 4;
+        var promotion = PackedMove.promotion(move);
+        return to | (from << 6) | ((promotion == null ? 0 : PROMOTION_CODES[promotion.ordinal()]) << 12);
+    }
+
+    /**
+     * @return the move among the legal moves that matches a Polyglot move, or PackedMove.NONE if there is none
+     */
+    private static int legalMove(int[] moves, int count, int polyglotMove) {
+        for (int i = 0; i < count; i++) {
+            if (toPolyglot(moves[i]) == polyglotMove) return moves[i];
+        }
+        return PackedMove.NONE;
+    }
+
+    /**
+     * @return the index of the first entry whose key is not below the given key (keys compare unsigned)
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(entryKey(middle), key) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    private long entryKey(int index) {
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+
+    private int polyglotMove(int index) {
+        return entries.getShort(index * ENTRY_SIZE + MOVE_OFFSET) & 0xFFFF;
+    }
+
+    private int weight(int index) {
+        return entries.getShort(index * ENTRY_SIZE + WEIGHT_OFFSET) & 0xFFFF;
+    }
+}
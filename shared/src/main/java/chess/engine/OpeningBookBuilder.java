@@ -0,0 +1,118 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.chessRules.LegalMoveGenerator;
+import chess.chessRules.PackedMove;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a Polyglot opening book (see OpeningBook) from played games. Each game is replayed from the starting
+ * position for its first maxPly moves, and every move played counts once towards its weight in the position it
+ * was played in, so the book prefers what players chose most often.
+ */
+public class OpeningBookBuilder {
+
+    public static final int DEFAULT_MAX_PLY = 20;
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPly;
+    // Position key to (Polyglot move to number of times played)
+    private final Map<Long, Map<Integer, Integer>> counts = new HashMap<>();
+    private int games;
+
+    public OpeningBookBuilder() {
+        this(DEFAULT_MAX_PLY);
+    }
+
+    /**
+     * @param maxPly how many moves (counting each player's) of each game go into the book
+     */
+    public OpeningBookBuilder(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Adds the opening of a game from its move history. Games set up with ChessGame.setBoard have no history and
+     * add nothing.
+     */
+    public void addGame(ChessGame game) {
+        addGame(game.getMoveHistory());
+    }
+
+    /**
+     * Adds the opening of a game given as packed moves from the starting position. Stops at the first move that
+     * isn't legal, so a game that didn't start from the usual position only adds what matches.
+     */
+    public void addGame(int[] moves) {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        TeamColor team = TeamColor.WHITE;
+        int[] legalMoves = new int[PackedMove.MAX_MOVES];
+        int plies = Math.min(moves.length, maxPly);
+        for (int ply = 0; ply < plies; ply++) {
+            int move = legalMove(board, team, moves[ply], legalMoves);
+            if (move == PackedMove.NONE) break;
+            counts.computeIfAbsent(board.getZobristKey(team), key -> new HashMap<>())
+                    .merge(OpeningBook.toPolyglot(move), 1, Integer::sum);
+            board.makeMove(move);
+            team = team.opponent();
+        }
+        games++;
+    }
+
+    /**
+     * @return the number of games added so far
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * @return the number of entries the book would have if written now
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Integer, Integer> moves : counts.values()) size += moves.size();
+        return size;
+    }
+
+    /**
+     * Writes the book: entries sorted by key, compared unsigned as Polyglot readers expect, and each position's
+     * moves from most to least played. Weights above 65535 are capped.
+     */
+    public void write(Path path) throws IOException {
+        List<Long> keys = new ArrayList<>(counts.keySet());
+        keys.sort(Long::compareUnsigned);
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (long key : keys) {
+                List<Map.Entry<Integer, Integer>> moves = new ArrayList<>(counts.get(key).entrySet());
+                moves.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+                for (Map.Entry<Integer, Integer> move : moves) {
+                    out.writeLong(key);
+                    out.writeShort(move.getKey());
+                    out.writeShort(Math.min(move.getValue(), MAX_WEIGHT));
+                    out.writeInt(0);
+                }
+            }
+        }
+    }
+
+    private static int legalMove(ChessBoard board, TeamColor team, int move, int[] legalMoves) {
+        int count = LegalMoveGenerator.generate(board, team, 1L << PackedMove.from(move), legalMoves, 0);
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.sameMove(legalMoves[i], move)) return legalMoves[i];
+        }
+        return PackedMove.NONE;
+    }
+}
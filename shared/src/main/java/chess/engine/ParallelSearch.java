@@ -0,0 +1,187 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.bitbase.Bitbases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Searches on several threads at once with "Lazy SMP": helper threads search the same position as the main search,
+ * with nothing coordinated between them except the TranspositionTable they all share. What one thread stores, the
+ * others find and skip or order by, so together they reach a given depth sooner than one thread would. The helpers
+ * start their iterative deepening at different depths, in turn, and every other round of them tries equally scored
+ * moves in reverse, so the threads do not walk the same tree in step.
+ * <p>
+ * The main search alone observes the limits and produces the result; the helpers are stopped as soon as it
+ * finishes. Each thread works on its own copy of the board. One ParallelSearch runs one search at a time; stop()
+ * may be called from any thread. The helper threads are pooled, so close it when done to end them.
+ */
+public class ParallelSearch implements AutoCloseable {
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    // Helpers start at depths 2, 3, 4, then 1 like the main search, and round again with the other tie order, so up
+    // to eight threads each differ in one or the other
+    private static final int HELPER_DEPTH_SPREAD = 4;
+
+    private final TranspositionTable table;
+    private final Search mainSearch;
+    private final List<Search> helpers = new ArrayList<>();
+    private Bitbases bitbases;
+    private final ExecutorService executor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "search-helper-" + THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ParallelSearch(TranspositionTable table) {
+        this.table = table;
+        mainSearch = new Search(table);
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Receives the main search's iterations
+     */
+    public void setListener(Search.Listener listener) {
+        mainSearch.setListener(listener);
+    }
+
+    /**
+     * Used by the main search and every helper; see Search.setBitbases
+     */
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+        mainSearch.setBitbases(bitbases);
+        for (Search helper : helpers) helper.setBitbases(bitbases);
+    }
+
+    /**
+     * Ends a running search as soon as possible; it returns the main search's last completed iteration
+     */
+    public void stop() {
+        mainSearch.stop();
+    }
+
+    public SearchResult search(ChessGame game, SearchLimits limits, int threads) {
+        return search(game.getBoard(), game.getPlayerTurn(), limits, threads);
+    }
+
+    /**
+     * Searches the position with the given number of threads, counting the calling thread, which runs the main
+     * search. With one thread this is just a Search.
+     *
+     * @return the main search's result, with nodes (and so nodes per second) and the pawn hash hit rate totalled
+     * over all threads
+     */
+    public SearchResult search(ChessBoard position, TeamColor sideToMove, SearchLimits limits, int threads) {
+        if (executor.isShutdown()) throw new IllegalStateException("The search was closed");
+        int helperCount = Math.max(0, threads - 1);
+        while (helpers.size() < helperCount) {
+            Search helper = new Search(table);
+            helper.setBitbases(bitbases);
+            helper.setReverseTies((helpers.size() + 1) / HELPER_DEPTH_SPREAD % 2 == 1);
+            helpers.add(helper);
+        }
+
+        // One new search in the table for every thread, so none of them sees another's fresh entries as old
+        table.newSearch();
+
+        // Helpers run until stopped, but keep any depth limit so they don't outlast a short search by much
+        SearchLimits helperLimits = SearchLimits.depth(limits.depth());
+        List<Future<SearchResult>> helperResults = new ArrayList<>(helperCount);
+        for (int i = 0; i < helperCount; i++) {
+            Search helper = helpers.get(i);
+            ChessBoard board = new ChessBoard(position); // copied here: the copy constructor isn't safe to race
+            int firstDepth = 1 + (i + 1) % HELPER_DEPTH_SPREAD;
+            helperResults.add(executor.submit(() -> helper.search(board, sideToMove, helperLimits, firstDepth)));
+        }
+
+        SearchResult result;
+        long helperNodes;
+        try {
+            result = mainSearch.search(position, sideToMove, limits, 1);
+        } finally {
+            // Also when the main search fails: without a depth limit the helpers would never end
+            helperNodes = stopHelpers(helperResults);
+        }
+
+        long nodes = result.nodes() + helperNodes;
+        PawnHashTable mainPawnTable = mainSearch.getPawnHashTable();
+        long pawnProbes = mainPawnTable.getProbes();
+        long pawnHits = mainPawnTable.getHits();
+        for (int i = 0; i < helperCount; i++) {
+            Search helper = helpers.get(i);
+            pawnProbes += helper.getPawnHashTable().getProbes();
+            pawnHits += helper.getPawnHashTable().getHits();
+        }
+        int pawnHashHits = pawnProbes == 0 ? 0 : (int) (pawnHits * 1000 / pawnProbes);
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.elapsedNanos(),
+                result.pv(), result.hashFull(), pawnHashHits);
+    }
+
+    /**
+     * Ends the helper threads. Call between searches; the search can't be used afterwards.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stops every helper and waits for them all to end, even if some of them failed
+     *
+     * @return the nodes the helpers searched
+     * @throws IllegalStateException once all have ended, if a helper failed
+     */
+    private long stopHelpers(List<Future<SearchResult>> results) {
+        for (int i = 0; i < results.size(); i++) helpers.get(i).stop();
+
+        long nodes = 0;
+        IllegalStateException failure = null;
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                nodes += stopHelper(helpers.get(i), results.get(i)).nodes();
+            } catch (IllegalStateException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) throw failure;
+        return nodes;
+    }
+
+    private static SearchResult stopHelper(Search helper, Future<SearchResult> future) {
+        // A helper that had not started yet when stopped would clear the request, so keep asking until it ends. An
+        // interrupt doesn't end the wait, which would leave the helper running; it is passed on afterwards.
+        boolean interrupted = false;
+        try {
+            while (true) {
+                helper.stop();
+                try {
+                    return future.get(1, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Still running; ask again
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search helper failed", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package chess.engine;
+
+import chess.ChessBoard;
+
+/**
+ * Caches PawnStructure scores by the board's pawn key. Pawns move rarely, so most positions in a search share their
+ * pawn structure with positions already evaluated and hit here.
+ * <p>
+ * Each slot holds a key and a packed score in two parallel primitive arrays; a new structure simply overwrites its
+ * slot. The table belongs to one Search, so it is not thread safe. An empty slot reads as key 0 with score 0, which
+ * is right for the one structure with that key: no pawns at all.
+ */
+public class PawnHashTable {
+
+    private final long[] keys;
+    private final int[] scores;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    /**
+     * @param entries number of slots, rounded down to a power of two
+     */
+    public PawnHashTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        keys = new long[size];
+        scores = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @return the packed pawn structure score of the board (see PawnStructure.pack), from the table when it has it
+     */
+    public int probe(ChessBoard board) {
+        probes++;
+        long key = board.getPawnKey();
+        int index = (int) key & mask;
+        if (keys[index] == key) {
+            hits++;
+            return scores[index];
+        }
+        int score = PawnStructure.evaluate(board);
+        keys[index] = key;
+        scores[index] = score;
+        return score;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the fraction of probes answered from the table, 0 before the first probe
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public void resetStatistics() {
+        probes = 0;
+        hits = 0;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,100 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Scores the pawn structure: doubled, isolated and passed pawns. The result depends on nothing but where the pawns
+ * are, so PawnHashTable can cache it by the board's pawn key.
+ * <p>
+ * Scores come as one int holding a middlegame and an endgame score (see pack), from white's point of view.
+ */
+public final class PawnStructure {
+
+    private static final long FILE_A = 0x0101010101010101L;
+
+    private static final int DOUBLED_MIDDLEGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDDLEGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    // Indexed by rank counted from the pawn's own side, 0-7
+    private static final int[] PASSED_MIDDLEGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 100, 150, 0};
+
+    // Files next to each file
+    private static final long[] ADJACENT_FILES = new long[8];
+    // [color][square]: squares ahead of a pawn on its own and the adjacent files; no enemy pawn there means passed
+    private static final long[][] PASSED_MASKS = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            if (file > 0) ADJACENT_FILES[file] |= FILE_A << (file - 1);
+            if (file < 7) ADJACENT_FILES[file] |= FILE_A << (file + 1);
+        }
+        for (int square = 0; square < 64; square++) {
+            long files = ADJACENT_FILES[square & 7] | (FILE_A << (square & 7));
+            int rank = square >>> 3;
+            long ranksAbove = rank == 7 ? 0 : -1L << (8 * (rank + 1));
+            long ranksBelow = (1L << (8 * rank)) - 1;
+            PASSED_MASKS[TeamColor.WHITE.ordinal()][square] = files & ranksAbove;
+            PASSED_MASKS[TeamColor.BLACK.ordinal()][square] = files & ranksBelow;
+        }
+    }
+
+    private PawnStructure() {}
+
+    /**
+     * @return the packed score of the pawn structure on the board
+     */
+    public static int evaluate(ChessBoard board) {
+        long whitePawns = board.getPieces(TeamColor.WHITE, PieceType.PAWN);
+        long blackPawns = board.getPieces(TeamColor.BLACK, PieceType.PAWN);
+        int white = evaluate(TeamColor.WHITE, whitePawns, blackPawns);
+        int black = evaluate(TeamColor.BLACK, blackPawns, whitePawns);
+        return white - black;
+    }
+
+    /**
+     * Packs a middlegame and an endgame score into one int, so both can be added and stored together. Each must
+     * stay within a short.
+     */
+    public static int pack(int middlegame, int endgame) {
+        return (middlegame << 16) + endgame;
+    }
+
+    public static int middlegame(int packed) {
+        return (packed + 0x8000) >> 16;
+    }
+
+    public static int endgame(int packed) {
+        return (short) packed;
+    }
+
+    private static int evaluate(TeamColor team, long pawns, long enemyPawns) {
+        int middlegame = 0;
+        int endgame = 0;
+
+        for (int file = 0; file < 8; file++) {
+            int onFile = Long.bitCount(pawns & (FILE_A << file));
+            if (onFile == 0) continue;
+            if (onFile > 1) {
+                middlegame += DOUBLED_MIDDLEGAME * (onFile - 1);
+                endgame += DOUBLED_ENDGAME * (onFile - 1);
+            }
+            if ((pawns & ADJACENT_FILES[file]) == 0) {
+                middlegame += ISOLATED_MIDDLEGAME * onFile;
+                endgame += ISOLATED_ENDGAME * onFile;
+            }
+        }
+
+        for (long remaining = pawns; remaining != 0; remaining &= remaining - 1) {
+            int square = Long.numberOfTrailingZeros(remaining);
+            if ((PASSED_MASKS[team.ordinal()][square] & enemyPawns) != 0) continue;
+            int rank = team == TeamColor.WHITE ? square >>> 3 : 7 - (square >>> 3);
+            middlegame += PASSED_MIDDLEGAME[rank];
+            endgame += PASSED_ENDGAME[rank];
+        }
+        return pack(middlegame, endgame);
+    }
+}
@@ -0,0 +1,365 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.bitbase.Bitbase;
+import chess.bitbase.Bitbases;
+import chess.chessRules.Attacks;
+import chess.chessRules.LegalMoveGenerator;
+import chess.chessRules.Material;
+import chess.chessRules.PackedMove;
+
+/**
+ * Chooses a move by negamax alpha-beta search with iterative deepening: it searches one ply deep, then two, and so
+ * on until a limit in SearchLimits is reached, keeping the result of the deepest iteration that finished. Each
+ * iteration tries the previous one's principal variation first, so deeper iterations cut off early. At the horizon
+ * a quiescence search plays out captures so the evaluation is not taken in the middle of an exchange.
+ * <p>
+ * Results are kept in a TranspositionTable, which can cut off a search at a position already searched deeply
+ * enough and otherwise supplies the best move found there last time to try first. The remaining moves are
+ * ordered by MoveOrdering.
+ * <p>
+ * The search works on a private copy of the board with makeMove/unmakeMove. Move lists and the principal variation
+ * table are allocated once per Search, so nothing is allocated per node. Not thread safe; use one Search per thread
+ * (they may share a TranspositionTable). stop() may be called from any thread.
+ */
+public class Search {
+
+    /**
+     * Called after each completed iteration, e.g. to print progress
+     */
+    public interface Listener {
+        void onIteration(SearchResult result);
+    }
+
+    public static final int MAX_PLY = 64;
+    public static final int MAX_DEPTH = MAX_PLY - 1;
+    public static final int MATE = 30000;
+    // Score for a position the bitbases say is won, plus the evaluation so the winning side still makes progress.
+    // Well clear of the mate scores.
+    public static final int KNOWN_WIN = 20000;
+    static final int INFINITY = MATE + 1;
+
+    // How many nodes to search between looks at the clock
+    private static final int TIME_CHECK_INTERVAL = 2048;
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+    private static final int PAWN_TABLE_ENTRIES = 1 << 14;
+
+    private final int[][] moveBuffers = new int[MAX_PLY][PackedMove.MAX_MOVES];
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final int[] previousPv = new int[MAX_PLY];
+    private int previousPvLength;
+    // The move made at each ply on the current line, and the piece index (ChessBoard.pieceIndex) of its piece
+    private final int[] lineMoves = new int[MAX_PLY];
+    private final int[] linePieces = new int[MAX_PLY];
+    private final MoveOrdering ordering = new MoveOrdering();
+
+    private final TranspositionTable table;
+    private final PawnHashTable pawnTable = new PawnHashTable(PAWN_TABLE_ENTRIES);
+    private ChessBoard board;
+    private Bitbases bitbases;
+    private Listener listener;
+    private volatile boolean stopRequested;
+    private boolean aborted;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    // No new iteration starts after this, halfway to the deadline: the next one would take longer than all before it
+    private long softDeadline;
+    private long startTime;
+
+    /**
+     * Uses a transposition table of its own, of DEFAULT_TABLE_MEGABYTES
+     */
+    public Search() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    public Search(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * @return this search's pawn structure cache, kept from search to search; its hit rate, counted from the start
+     * of the last search, shows whether it is big enough
+     */
+    public PawnHashTable getPawnHashTable() {
+        return pawnTable;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param enabled false to search moves in the order they are generated instead of by MoveOrdering, to measure
+     *                how many nodes the ordering saves; on by default
+     */
+    public void setMoveOrdering(boolean enabled) {
+        ordering.setEnabled(enabled);
+    }
+
+    /**
+     * Lets ParallelSearch give a helper a different move order; see MoveOrdering.setReverseTies
+     */
+    void setReverseTies(boolean reverseTies) {
+        ordering.setReverseTies(reverseTies);
+    }
+
+    /**
+     * @param bitbases looked up below the root to score the endings they cover exactly; null to search them out
+     */
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    /**
+     * Ends a running search as soon as possible; it returns the result of its last completed iteration, or if it had
+     * not completed one, the best move found so far
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game.getBoard(), game.getPlayerTurn(), limits);
+    }
+
+    /**
+     * Searches the position on the given board with the given team to move. The board is not changed.
+     */
+    public SearchResult search(ChessBoard position, TeamColor sideToMove, SearchLimits limits) {
+        table.newSearch();
+        return search(position, sideToMove, limits, 1);
+    }
+
+    /**
+     * Searches without starting a new search in the transposition table, for ParallelSearch, which starts one for
+     * all its threads together so entries they write during the search all count as current
+     *
+     * @param firstDepth depth of the first iteration; ParallelSearch starts some helpers deeper so they don't all
+     *                   search the same tree in step
+     */
+    SearchResult search(ChessBoard position, TeamColor sideToMove, SearchLimits limits, int firstDepth) {
+        board = new ChessBoard(position);
+        ordering.newSearch();
+        pawnTable.resetStatistics();
+        stopRequested = false;
+        aborted = false;
+        previousPvLength = 0;
+        nodes = 0;
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        startTime = System.nanoTime();
+        deadline = limits.timeMillis() > 0 ? startTime + limits.timeMillis() * 1_000_000 : Long.MAX_VALUE;
+        softDeadline = limits.timeMillis() > 0 ? startTime + limits.timeMillis() * 500_000 : Long.MAX_VALUE;
+        int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_DEPTH) : MAX_DEPTH;
+
+        SearchResult result = new SearchResult(PackedMove.NONE, 0, 0, 0, 0, new int[0], 0, 0);
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            int score = negamax(sideToMove, depth, 0, -INFINITY, INFINITY, true);
+
+            // A cut-short iteration has only looked at some of the moves, so its answer can't be trusted
+            if (aborted) break;
+
+            int[] pv = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, pv, 0, pv.length);
+            int bestMove = pv.length > 0 ? pv[0] : PackedMove.NONE;
+            result = new SearchResult(bestMove, score, depth, nodes, System.nanoTime() - startTime, pv,
+                    table.getFillPermille(), pawnHashHits());
+            System.arraycopy(pv, 0, previousPv, 0, pv.length);
+            previousPvLength = pv.length;
+            if (listener != null) listener.onIteration(result);
+
+            // Nothing to choose between, or a forced mate found: deeper iterations can't change the answer
+            if (bestMove == PackedMove.NONE || result.isMate()) break;
+            if (System.nanoTime() >= softDeadline) break;
+        }
+
+        // Stopped during the first iteration: still answer with a move
+        if (aborted && result.depth() == 0) {
+            int move = unfinishedBestMove(sideToMove);
+            int[] pv = move == PackedMove.NONE ? new int[0] : new int[]{move};
+            result = new SearchResult(move, 0, 0, nodes, System.nanoTime() - startTime, pv, 0, 0);
+        }
+
+        board = null;
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes,
+                System.nanoTime() - startTime, result.pv(), table.getFillPermille(), pawnHashHits());
+    }
+
+    /**
+     * @param onPv whether every move leading here was the previous iteration's principal variation
+     */
+    private int negamax(TeamColor team, int depth, int ply, int alpha, int beta, boolean onPv) {
+        pvLength[ply] = 0;
+        if (depth <= 0) return quiescence(team, ply, alpha, beta);
+        if (shouldStop()) return 0;
+        nodes++;
+        if (ply > 0 && Material.isDeadPosition(board)) return 0;
+        if (ply > 0 && bitbases != null) {
+            Bitbase.Result result = bitbases.probe(board, team);
+            if (result != null) return knownScore(result, team);
+        }
+
+        // A deep enough result for this position decides the node, except at the root, which must produce a move
+        long key = board.getZobristKey(team);
+        long entry = table.probe(key);
+        int hashMove = PackedMove.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = LegalMoveGenerator.generate(board, team, -1L, moves, 0);
+        if (count == 0) {
+            // Prefer the quickest mate, and the slowest when being mated
+            return inCheck(team) ? -MATE + ply : 0;
+        }
+        if (ply == MAX_DEPTH) return Evaluator.evaluate(board, team, pawnTable);
+
+        // While on the previous iteration's line, its move goes first; elsewhere the table's best move does
+        int pvMove = onPv && ply < previousPvLength ? previousPv[ply] : PackedMove.NONE;
+        int previousMove = ply > 0 ? lineMoves[ply - 1] : PackedMove.NONE;
+        int previousPiece = ply > 0 ? linePieces[ply - 1] : 0;
+        ordering.scoreMoves(board, team, moves, count, ply, pvMove != PackedMove.NONE ? pvMove : hashMove,
+                previousMove, previousPiece);
+
+        int originalAlpha = alpha;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = ordering.pick(moves, count, i, ply);
+            makeMove(move, ply);
+            int score = -negamax(team.opponent(), depth - 1, ply + 1, -beta, -alpha, move == pvMove);
+            board.unmakeMove();
+            if (aborted) return 0;
+
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                updatePv(ply, move);
+                if (score >= beta) {
+                    ordering.recordCutoff(team, move, ply, depth, previousMove, previousPiece);
+                    break;
+                }
+            }
+        }
+
+        int bound = alpha >= beta ? TranspositionTable.LOWER_BOUND
+                : alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, bestMove, TranspositionTable.toTableScore(alpha, ply), depth, bound);
+        return alpha;
+    }
+
+    /**
+     * Searches captures only, letting the side to move "stand pat" on the static evaluation if no capture
+     * improves on it.
+     */
+    private int quiescence(TeamColor team, int ply, int alpha, int beta) {
+        if (shouldStop()) return 0;
+        nodes++;
+
+        int standPat = Evaluator.evaluate(board, team, pawnTable);
+        if (standPat >= beta || ply == MAX_DEPTH) return standPat;
+        if (standPat > alpha) alpha = standPat;
+
+        int[] moves = moveBuffers[ply];
+        int count = LegalMoveGenerator.generate(board, team, -1L, moves, 0);
+        ordering.scoreCaptures(board, moves, count, ply);
+        for (int i = 0; i < count; i++) {
+            // Captures and promotions are picked first, so the first quiet move ends the list
+            int move = ordering.pick(moves, count, i, ply);
+            if (!MoveOrdering.isTactical(move)) break;
+            makeMove(move, ply);
+            int score = -quiescence(team.opponent(), ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (aborted) return 0;
+
+            if (score > alpha) {
+                alpha = score;
+                if (score >= beta) break;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Makes the move on the board, noting it and its piece on the current line for the counter move table
+     */
+    private void makeMove(int move, int ply) {
+        ChessPiece piece = board.getPiece(PackedMove.from(move));
+        lineMoves[ply] = move;
+        linePieces[ply] = ChessBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        board.makeMove(move);
+    }
+
+    /**
+     * Makes move followed by the child's principal variation the principal variation at this ply
+     */
+    private void updatePv(int ply, int move) {
+        // Never called at the last ply, so ply + 1 is in range
+        int[] line = pvTable[ply];
+        line[0] = move;
+        System.arraycopy(pvTable[ply + 1], 0, line, 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    private int knownScore(Bitbase.Result result, TeamColor team) {
+        return switch (result) {
+            case WIN -> KNOWN_WIN + Evaluator.evaluate(board, team, pawnTable);
+            case LOSS -> -KNOWN_WIN + Evaluator.evaluate(board, team, pawnTable);
+            case DRAW -> 0;
+        };
+    }
+
+    /**
+     * @return the pawn hash table's hit rate this search, in parts per thousand
+     */
+    private int pawnHashHits() {
+        return (int) (pawnTable.getHitRate() * 1000);
+    }
+
+    private boolean inCheck(TeamColor team) {
+        int kingSquare = board.getKingSquare(team);
+        return kingSquare >= 0 && Attacks.isAttacked(board, kingSquare, team.opponent());
+    }
+
+    /**
+     * @return the best root move of a cut-short iteration, if it had finished searching one, otherwise the first
+     * legal move
+     */
+    private int unfinishedBestMove(TeamColor sideToMove) {
+        // The root's variation is only updated once a move's search has completed
+        if (pvLength[0] > 0) return pvTable[0][0];
+        int count = LegalMoveGenerator.generate(board, sideToMove, -1L, moveBuffers[0], 0);
+        return count > 0 ? moveBuffers[0][0] : PackedMove.NONE;
+    }
+
+    /**
+     * A stop request and the node and time limits apply from the first node on; the soft time limit is only looked
+     * at between iterations, so the search never ends on it without a completed iteration
+     */
+    private boolean shouldStop() {
+        if (aborted) return true;
+        if (stopRequested || nodes >= nodeLimit
+                || (nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+}
@@ -0,0 +1,24 @@
+package chess.engine;
+
+/**
+ * When a search should stop. It stops at whichever limit is reached first; a limit of 0 or less means no limit of
+ * that kind. Without a depth limit the search goes on until time or nodes run out (or Search.MAX_DEPTH).
+ *
+ * @param depth      deepest iteration to complete, in plies
+ * @param timeMillis wall clock time allowed; no new iteration starts once half of it has passed
+ * @param nodes      positions the search may visit
+ */
+public record SearchLimits(int depth, long timeMillis, long nodes) {
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, timeMillis, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, 0, nodes);
+    }
+}
@@ -0,0 +1,40 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.chessRules.PackedMove;
+
+/**
+ * The outcome of the deepest completed iteration of a search.
+ *
+ * @param bestMove     packed move (see PackedMove), or PackedMove.NONE if the side to move has no legal move
+ * @param score        centipawns from the side to move's point of view; mate scores are near +/- Search.MATE
+ * @param depth        depth of the iteration, in plies
+ * @param nodes        positions visited by the whole search so far, including quiescence
+ * @param elapsedNanos time spent by the whole search so far
+ * @param pv           principal variation as packed moves, starting with bestMove
+ * @param hashFull     how full the transposition table is with this search's entries, in parts per thousand
+ *                     (see TranspositionTable.getFillPermille)
+ * @param pawnHashHits share of pawn structure lookups answered by the pawn hash table during the search, in parts
+ *                     per thousand (see PawnHashTable.getHitRate)
+ */
+public record SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos, int[] pv,
+                           int hashFull, int pawnHashHits) {
+
+    /**
+     * @return the best move, or null if there is none
+     */
+    public ChessMove bestChessMove() {
+        return bestMove == PackedMove.NONE ? null : PackedMove.toChessMove(bestMove);
+    }
+
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * @return true if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+}
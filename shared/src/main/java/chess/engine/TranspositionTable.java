@@ -0,0 +1,214 @@
+package chess.engine;
+
+import chess.chessRules.PackedMove;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers search results by position (Zobrist key) so positions reached again, by transposition or in the next
+ * iteration, are not searched again from scratch.
+ * <p>
+ * The table is one long[] of buckets, each holding 4 entries of 2 longs: (key ^ data, data). Entries are written
+ * and read without locks, so many searcher threads can share one table. Two threads writing the same slot at once
+ * can leave one's key with the other's data, but then key ^ data no longer matches any key and the entry reads
+ * as a miss, so a torn entry is never used.
+ * <p>
+ * When a bucket is full, a store replaces the entry that is shallowest and oldest, where age counts searches
+ * (newSearch) since the entry was written.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2; // the search failed high: the score is at least this
+    public static final int UPPER_BOUND = 3; // the search failed low: the score is at most this
+
+    private static final int ENTRIES_PER_BUCKET = 4;
+    private static final int LONGS_PER_BUCKET = ENTRIES_PER_BUCKET * 2; // 64 bytes, one cache line
+    private static final int MAX_BUCKETS = 1 << 27; // keeps the array length under the Java limit
+
+    // Data layout: move bits 0-19, score 20-35, depth 36-43, bound 44-45, age 46-53
+    private static final int SCORE_SHIFT = 20;
+    private static final int DEPTH_SHIFT = 36;
+    private static final int BOUND_SHIFT = 44;
+    private static final int AGE_SHIFT = 46;
+    private static final long MOVE_MASK = (1L << SCORE_SHIFT) - 1;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * @param megabytes memory to use, rounded down to a power of two number of buckets (at least one)
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = Math.max(1, (long) megabytes * 1024 * 1024 / (LONGS_PER_BUCKET * Long.BYTES));
+        buckets = Math.min(Long.highestOneBit(buckets), MAX_BUCKETS);
+        table = new long[(int) buckets * LONGS_PER_BUCKET];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches are replaced first
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * @return the number of searches started with newSearch, modulo 256; entries store the age they were written in
+     */
+    public int getAge() {
+        return age;
+    }
+
+    /**
+     * Empties the table and resets the counters
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+    }
+
+    /**
+     * @return the entry's data for the position with the given key, or 0 if the table has none. Read it with
+     * move(), score(), depth() and bound().
+     */
+    public long probe(long key) {
+        probes.increment();
+        int bucket = bucketIndex(key);
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET; i += 2) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != 0) {
+                hits.increment();
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param move  best move found, or PackedMove.NONE to keep any move already stored for this position
+     * @param score score relative to the position, see toTableScore
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int bucket = bucketIndex(key);
+        int currentAge = age;
+        int victim = bucket;
+        int victimPriority = Integer.MAX_VALUE;
+        boolean evicting = true;
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET; i += 2) {
+            long data = table[i + 1];
+            boolean samePosition = (table[i] ^ data) == key;
+            if (data == 0 || samePosition) {
+                if (samePosition && move == PackedMove.NONE) move = move(data);
+                victim = i;
+                evicting = false;
+                break;
+            }
+            // Shallow entries are cheap to recompute, and old ones are unlikely to be needed again
+            int priority = depth(data) - 8 * ((currentAge - age(data)) & 0xFF);
+            if (priority < victimPriority) {
+                victim = i;
+                victimPriority = priority;
+            }
+        }
+        if (evicting) collisions.increment();
+
+        long data = (move & MOVE_MASK)
+                | ((score & 0xFFFFL) << SCORE_SHIFT)
+                | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentAge << AGE_SHIFT);
+        table[victim] = key ^ data;
+        table[victim + 1] = data;
+    }
+
+    public static int move(long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    /**
+     * @return the stored score, as stored (see fromTableScore)
+     */
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & 0xFF;
+    }
+
+    /**
+     * Mate scores count plies from the root, but a stored entry can be reached at any ply, so they are stored
+     * counting from the entry's own position instead.
+     */
+    public static int toTableScore(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) return score + ply;
+        if (score <= -Search.MATE + Search.MAX_PLY) return score - ply;
+        return score;
+    }
+
+    public static int fromTableScore(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) return score - ply;
+        if (score <= -Search.MATE + Search.MAX_PLY) return score + ply;
+        return score;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return stores that had to evict an entry for a different position
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * @return how full the table is with entries from the current search, in parts per thousand (sampled from the
+     * first 1000 entries, as UCI's hashfull expects)
+     */
+    public int getFillPermille() {
+        int entries = Math.min(1000, table.length / 2);
+        int used = 0;
+        int currentAge = age;
+        for (int i = 0; i < entries; i++) {
+            long data = table[2 * i + 1];
+            if (data != 0 && age(data) == currentAge) used++;
+        }
+        return used * 1000 / entries;
+    }
+
+    /**
+     * @return the number of entries the table holds
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    private int bucketIndex(long key) {
+        // The low bits pick the bucket; the full key is checked on probe
+        return ((int) key & bucketMask) * LONGS_PER_BUCKET;
+    }
+}
@@ -0,0 +1,122 @@
+package chessRulesTests;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        var expected = new ChessBoard();
+        expected.resetBoard();
+        var board = ChessBoard.fromFen(START);
+        Assertions.assertEquals(expected, board);
+        Assertions.assertEquals(expected.getZobristKey(), board.getZobristKey());
+        Assertions.assertEquals(START, new ChessGame().toFen());
+    }
+
+    @Test
+    @DisplayName("Round Trip")
+    public void roundTrip() {
+        String[] fens = {
+                START,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "8/8/8/8/k2Pp3/8/8/4K3 b - d3 0 40",
+                "4k3/8/8/8/8/8/8/4K2R b K - 99 130",
+        };
+        for (String fen : fens) {
+            Assertions.assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    @DisplayName("Game Fields")
+    public void gameFields() throws Exception {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 0 2", game.toFen());
+
+        var parsed = ChessGame.fromFen(game.toFen());
+        Assertions.assertEquals(TeamColor.BLACK, parsed.getPlayerTurn());
+        Assertions.assertEquals(2, parsed.getFullmoveNumber());
+        Assertions.assertEquals(game.getBoard(), parsed.getBoard());
+        Assertions.assertEquals(game.getZobristKey(), parsed.getZobristKey());
+
+        // Saved games keep the fullmove number
+        var restored = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.toFen(), restored.toFen());
+    }
+
+    @Test
+    @DisplayName("En Passant Square Only Kept When Capturable")
+    public void enPassant() {
+        // Older tools give the square after every double push; no black pawn can take on e3 here
+        var game = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        Assertions.assertEquals(-1, game.getBoard().getEnPassantSquare());
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", game.toFen());
+
+        var capturable = ChessBoard.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        Assertions.assertEquals(new ChessPosition(6, 6).getSquare(), capturable.getEnPassantSquare());
+    }
+
+    @Test
+    @DisplayName("Counters Optional")
+    public void countersOptional() {
+        var game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K -");
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+        ChessPiece rook = game.getBoard().getPiece(new ChessPosition(1, 8));
+        Assertions.assertEquals(ChessPiece.PieceType.ROOK, rook.getPieceType());
+        Assertions.assertEquals(ChessBoard.WHITE_KINGSIDE, game.getBoard().getCastlingRights());
+    }
+
+    @Test
+    @DisplayName("Long Halfmove Clock Kept")
+    public void longHalfmoveClock() throws Exception {
+        // Positions from long engine games can go well past the fifty-move count without anyone claiming the draw
+        String fen = "4k3/8/8/8/8/8/8/4K2R w K - 300 180";
+        var game = ChessGame.fromFen(fen);
+        Assertions.assertEquals(300, game.getHalfmoveClock());
+        Assertions.assertEquals(fen, game.toFen());
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 8), new ChessPosition(2, 8), null));
+        Assertions.assertEquals(301, game.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Invalid FEN Rejected")
+    public void invalid() {
+        String[] fens = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkX - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 10000 1",
+        };
+        for (String fen : fens) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
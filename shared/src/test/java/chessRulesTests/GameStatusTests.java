@@ -0,0 +1,203 @@
+package chessRulesTests;
+
+import chess.ChessGame;
+import chess.ChessGame.GameStatus;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static passoffTests.TestFactory.loadBoard;
+
+/**
+ * getGameStatus should agree with isInCheck, isInCheckmate and isInStalemate.
+ */
+public class GameStatusTests {
+
+    @Test
+    @DisplayName("Normal")
+    public void normal() {
+        assertStatus(new ChessGame(), GameStatus.NORMAL);
+    }
+
+    @Test
+    @DisplayName("Check")
+    public void check() {
+        var game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |R| |K| |
+                """));
+        game.setPlayerTurn(TeamColor.BLACK);
+        assertStatus(game, GameStatus.CHECK);
+    }
+
+    @Test
+    @DisplayName("Checkmate After Moves")
+    public void foolsMate() throws Exception {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        assertStatus(game, GameStatus.NORMAL);
+
+        // The cached NORMAL must not survive the mating move
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        assertStatus(game, GameStatus.CHECKMATE);
+    }
+
+    @Test
+    @DisplayName("Stalemate")
+    public void stalemate() {
+        var game = new ChessGame();
+        game.setBoard(loadBoard("""
+                |k| | | | | | | |
+                | | |Q| | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """));
+        game.setPlayerTurn(TeamColor.BLACK);
+        assertStatus(game, GameStatus.STALEMATE);
+
+        // Changing whose turn it is gives a different position, so the status is worked out again
+        game.setPlayerTurn(TeamColor.WHITE);
+        assertStatus(game, GameStatus.NORMAL);
+    }
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws Exception {
+        var game = new ChessGame();
+        // Both sides bring a knight out and back twice, so the starting position comes up a third time
+        for (int round = 0; round < 2; round++) {
+            Assertions.assertEquals(GameStatus.NORMAL, game.getGameStatus());
+            game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+            game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+            game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+            game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+        }
+        Assertions.assertEquals(2, game.repetitions());
+        Assertions.assertEquals(GameStatus.THREEFOLD_REPETITION, game.getGameStatus());
+        Assertions.assertTrue(game.getGameStatus().isGameOver());
+    }
+
+    @Test
+    @DisplayName("Pawn Move Resets Repetitions")
+    public void pawnMoveResetsRepetitions() throws Exception {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+        Assertions.assertEquals(1, game.repetitions());
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null));
+        Assertions.assertEquals(0, game.repetitions());
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Repetitions Survive Saving")
+    public void repetitionsSurviveSaving() throws Exception {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+
+        // Only the five positions since the pawn move are saved, not the whole ring
+        JsonObject json = new Gson().toJsonTree(game).getAsJsonObject();
+        Assertions.assertEquals(5, json.getAsJsonArray("positionHistory").size());
+
+        var restored = new Gson().fromJson(json, ChessGame.class);
+        restored.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        Assertions.assertEquals(1, restored.repetitions());
+    }
+
+    @Test
+    @DisplayName("Fifty-Move Rule")
+    public void fiftyMoveRule() throws Exception {
+        var game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | |K| | | |
+                """));
+        game.getBoard().setHalfmoveClock(99);
+        assertStatus(game, GameStatus.NORMAL);
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 1), new ChessPosition(2, 1), null));
+        Assertions.assertEquals(100, game.getHalfmoveClock());
+        assertStatus(game, GameStatus.FIFTY_MOVE_RULE);
+    }
+
+    @Test
+    @DisplayName("Checkmate Beats Fifty-Move Rule")
+    public void checkmateBeatsFiftyMoveRule() throws Exception {
+        var game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | |K| |
+                """));
+        game.getBoard().setHalfmoveClock(99);
+        game.makeMove(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null));
+        assertStatus(game, GameStatus.CHECKMATE);
+    }
+
+    @Test
+    @DisplayName("Dead Position")
+    public void deadPosition() throws Exception {
+        var game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |r| | | |
+                | | | | |K| | | |
+                """));
+        assertStatus(game, GameStatus.CHECK);
+
+        // Taking the Rook leaves bare Kings
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        assertStatus(game, GameStatus.DEAD_POSITION);
+    }
+
+    private static void assertStatus(ChessGame game, GameStatus expected) {
+        TeamColor team = game.getPlayerTurn();
+        Assertions.assertEquals(expected, game.getGameStatus());
+        Assertions.assertEquals(expected == GameStatus.CHECK || expected == GameStatus.CHECKMATE, game.isInCheck(team));
+        Assertions.assertEquals(expected == GameStatus.CHECKMATE, game.isInCheckmate(team));
+        // isInStalemate only asks whether the team has no valid moves, so it holds in checkmate as well
+        Assertions.assertEquals(expected == GameStatus.STALEMATE || expected == GameStatus.CHECKMATE,
+                game.isInStalemate(team));
+    }
+}
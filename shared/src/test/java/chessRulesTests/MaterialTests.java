@@ -0,0 +1,157 @@
+package chessRulesTests;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.chessRules.ChessRules;
+import chess.chessRules.Material;
+import chess.chessRules.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static passoffTests.TestFactory.loadBoard;
+
+/**
+ * Checks the material signature kept by ChessBoard and the dead positions Material recognises from it.
+ */
+public class MaterialTests {
+
+    @Test
+    @DisplayName("Starting Signature")
+    public void startingSignature() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        int signature = board.getMaterialSignature();
+        for (TeamColor team : TeamColor.values()) {
+            Assertions.assertEquals(1, Material.count(signature, team, PieceType.QUEEN));
+            Assertions.assertEquals(2, Material.count(signature, team, PieceType.ROOK));
+            Assertions.assertEquals(2, Material.count(signature, team, PieceType.BISHOP));
+            Assertions.assertEquals(2, Material.count(signature, team, PieceType.KNIGHT));
+            Assertions.assertEquals(0, Material.count(signature, team, PieceType.PAWN));
+        }
+        Assertions.assertFalse(Material.isDeadPosition(board));
+    }
+
+    @Test
+    @DisplayName("Incremental Signature Matches Rebuilt")
+    public void incrementalMatchesRebuilt() {
+        var rules = new ChessRules();
+        var board = new ChessBoard();
+        board.resetBoard();
+        var random = new Random(11);
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        TeamColor team = TeamColor.WHITE;
+
+        int made = 0;
+        for (int ply = 0; ply < 300; ply++) {
+            int count = rules.validMoves(board, team, moves, 0);
+            if (count == 0) break;
+            board.makeMove(moves[random.nextInt(count)]);
+            made++;
+            team = team.opponent();
+            Assertions.assertEquals(rebuilt(board).getMaterialSignature(), board.getMaterialSignature(),
+                    "Signature drifted at ply " + ply);
+        }
+        for (; made > 0; made--) board.unmakeMove();
+        var expected = new ChessBoard();
+        expected.resetBoard();
+        Assertions.assertEquals(expected.getMaterialSignature(), board.getMaterialSignature());
+    }
+
+    @Test
+    @DisplayName("Dead Positions")
+    public void deadPositions() {
+        assertDead(true, """
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        assertDead(true, """
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K|N| | |
+                """);
+        // Bishops on c1 and f8 both stand on dark squares
+        assertDead(true, """
+                | | | | |k|b| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |B| |K| | | |
+                """);
+    }
+
+    @Test
+    @DisplayName("Live Positions")
+    public void livePositions() {
+        // Bishops on c1 (dark) and c8 (light)
+        assertDead(false, """
+                | | |b| |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |B| |K| | | |
+                """);
+        assertDead(false, """
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |N| | |K|N| | |
+                """);
+        assertDead(false, """
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | |K| | | |
+                """);
+        assertDead(false, """
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | |K| | | |
+                """);
+    }
+
+    private static void assertDead(boolean expected, String diagram) {
+        Assertions.assertEquals(expected, Material.isDeadPosition(loadBoard(diagram)), diagram);
+    }
+
+    private static ChessBoard rebuilt(ChessBoard board) {
+        var copy = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            copy.addPiece(square, board.getPiece(square));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,133 @@
+package chessRulesTests;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.chessRules.LegalMoveGenerator;
+import chess.chessRules.MoveNotation;
+import chess.chessRules.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MoveNotationTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private final MoveNotation notation = new MoveNotation();
+
+    @Test
+    @DisplayName("UCI Notation")
+    public void uci() {
+        var board = ChessBoard.fromFen(KIWIPETE);
+        int castle = notation.parseUci("e1g1", board, TeamColor.WHITE);
+        Assertions.assertTrue(PackedMove.isCastle(castle));
+        Assertions.assertEquals("e1g1", MoveNotation.toUci(castle));
+        Assertions.assertTrue(PackedMove.isCapture(notation.parseUci("e2a6", board, TeamColor.WHITE)));
+
+        var promotion = ChessBoard.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        int underpromotion = notation.parseUci("d7c8n", promotion, TeamColor.WHITE);
+        Assertions.assertEquals(ChessPiece.PieceType.KNIGHT, PackedMove.promotion(underpromotion));
+        Assertions.assertEquals("d7c8n", MoveNotation.toUci(underpromotion));
+
+        // A promotion must say what to promote to, and a move must be the mover's own and legal
+        Assertions.assertEquals(PackedMove.NONE, notation.parseUci("d7c8", promotion, TeamColor.WHITE));
+        Assertions.assertEquals(PackedMove.NONE, notation.parseUci("e8f7", board, TeamColor.WHITE));
+        Assertions.assertEquals(PackedMove.NONE, notation.parseUci("e1e3", board, TeamColor.WHITE));
+        Assertions.assertEquals(PackedMove.NONE, notation.parseUci("e1", board, TeamColor.WHITE));
+        Assertions.assertEquals(PackedMove.NONE, notation.parseUci("z1g1", board, TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("SAN From the Start")
+    public void sanFromStart() {
+        var game = new ChessGame();
+        var board = game.getBoard();
+        int push = notation.parseSan("e4", board, TeamColor.WHITE);
+        Assertions.assertEquals(PackedMove.DOUBLE_PAWN_PUSH, push & PackedMove.DOUBLE_PAWN_PUSH);
+        Assertions.assertEquals("e4", notation.toSan(push, board, TeamColor.WHITE));
+        Assertions.assertEquals("Nf3", notation.toSan(notation.parse("g1f3", board, TeamColor.WHITE), board,
+                TeamColor.WHITE));
+        Assertions.assertEquals(PackedMove.NONE, notation.parseSan("e5", board, TeamColor.WHITE));
+        Assertions.assertEquals(PackedMove.NONE, notation.parseSan("Ke2", board, TeamColor.WHITE));
+        Assertions.assertEquals(PackedMove.NONE, notation.parseSan("", board, TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("SAN Disambiguation")
+    public void disambiguation() {
+        var board = ChessBoard.fromFen("4k3/8/8/8/8/8/8/N1N1K2R w K - 0 1");
+        Assertions.assertEquals(PackedMove.NONE, notation.parseSan("Nb3", board, TeamColor.WHITE));
+        assertSan("Nab3", board, TeamColor.WHITE);
+        assertSan("Ncb3", board, TeamColor.WHITE);
+        assertSan("Rf1", board, TeamColor.WHITE);
+        assertSan("O-O", board, TeamColor.WHITE);
+        Assertions.assertEquals(notation.parseSan("O-O", board, TeamColor.WHITE),
+                notation.parseSan("0-0", board, TeamColor.WHITE));
+
+        var rooks = ChessBoard.fromFen("4k3/8/8/R7/8/8/8/R3K3 w Q - 0 1");
+        assertSan("R5a3", rooks, TeamColor.WHITE);
+        assertSan("R1a3", rooks, TeamColor.WHITE);
+        assertSan("O-O-O", rooks, TeamColor.WHITE);
+
+        // Queens on a1, a3 and c1 can all reach b2: only the square tells the one on a1 apart
+        var queens = ChessBoard.fromFen("4k3/8/8/8/8/Q7/8/Q1Q1K3 w - - 0 1");
+        assertSan("Qa1b2", queens, TeamColor.WHITE);
+        assertSan("Q3b2", queens, TeamColor.WHITE);
+        assertSan("Qcb2", queens, TeamColor.WHITE);
+    }
+
+    @Test
+    @DisplayName("SAN Captures, Checks and Promotions")
+    public void sanMarks() {
+        var scholars = ChessBoard.fromFen("r1bqkbnr/pppp1ppp/2n5/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 2 3");
+        assertSan("Qxf7#", scholars, TeamColor.WHITE);
+        assertSan("Bxf7+", scholars, TeamColor.WHITE);
+        // Marks and annotations are optional when reading
+        Assertions.assertEquals(notation.parseSan("Qxf7#", scholars, TeamColor.WHITE),
+                notation.parseSan("Qf7!!", scholars, TeamColor.WHITE));
+
+        var enPassant = ChessBoard.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        Assertions.assertTrue(PackedMove.isEnPassant(notation.parseSan("exf6", enPassant, TeamColor.WHITE)));
+        assertSan("exf6", enPassant, TeamColor.WHITE);
+
+        var promotion = ChessBoard.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        assertSan("dxc8=Q", promotion, TeamColor.WHITE);
+        assertSan("dxc8=N", promotion, TeamColor.WHITE);
+        Assertions.assertEquals(notation.parseSan("dxc8=R", promotion, TeamColor.WHITE),
+                notation.parseSan("dxc8R", promotion, TeamColor.WHITE));
+        Assertions.assertEquals(PackedMove.NONE, notation.parseSan("dxc8", promotion, TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Every Legal Move Round Trips")
+    public void roundTrip() {
+        String[] fens = {
+                KIWIPETE,
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "8/8/8/8/k2Pp3/8/8/4K3 b - d3 0 40",
+        };
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        for (String fen : fens) {
+            var game = ChessGame.fromFen(fen);
+            var board = game.getBoard();
+            var team = game.getPlayerTurn();
+            int count = LegalMoveGenerator.generate(board, team, -1L, moves, 0);
+            for (int i = 0; i < count; i++) {
+                String san = notation.toSan(moves[i], board, team);
+                Assertions.assertEquals(moves[i], notation.parseSan(san, board, team), san + " in " + fen);
+                String uci = MoveNotation.toUci(moves[i]);
+                Assertions.assertEquals(moves[i], notation.parseUci(uci, board, team), uci + " in " + fen);
+            }
+            Assertions.assertEquals(fen, game.toFen(), "writing SAN changed the board");
+        }
+    }
+
+    private void assertSan(String san, ChessBoard board, TeamColor team) {
+        int move = notation.parseSan(san, board, team);
+        Assertions.assertNotEquals(PackedMove.NONE, move, san);
+        Assertions.assertEquals(san, notation.toSan(move, board, team));
+    }
+}
@@ -0,0 +1,188 @@
+package chessRulesTests;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.chessRules.ChessRules;
+import chess.chessRules.PackedMove;
+import chess.chessRules.ParallelEvaluator;
+import chess.chessRules.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Perft leaf counts for standard test positions, checked against the published reference values.
+ */
+public class PerftTests {
+    private Perft perft;
+
+    @BeforeEach
+    public void setUp() {
+        perft = new Perft();
+    }
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        assertPerft(board, TeamColor.WHITE, 20, 400, 8902, 197281, 4865609);
+    }
+
+    @Test
+    @DisplayName("Castling and Promotions")
+    public void kiwipete() {
+        // "Kiwipete" from the Chess Programming Wiki
+        var board = ChessBoard.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -");
+        assertPerft(board, TeamColor.WHITE, 48, 2039, 97862);
+    }
+
+    @Test
+    @DisplayName("Rook and Pawn Endgame")
+    public void rookPawnEndgame() {
+        // "Position 3" from the Chess Programming Wiki
+        var board = ChessBoard.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -");
+        assertPerft(board, TeamColor.WHITE, 14, 191, 2812, 43238);
+    }
+
+    @Test
+    @DisplayName("Castling Out of Check Refused")
+    public void position4() {
+        // "Position 4" from the Chess Programming Wiki
+        var board = ChessBoard.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -");
+        assertPerft(board, TeamColor.WHITE, 6, 264, 9467);
+    }
+
+    @Test
+    @DisplayName("Underpromotion and Discovered Checks")
+    public void position5() {
+        // "Position 5" from the Chess Programming Wiki
+        var board = ChessBoard.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ -");
+        assertPerft(board, TeamColor.WHITE, 44, 1486, 62379);
+    }
+
+    @Test
+    @DisplayName("Middlegame")
+    public void middlegame() {
+        // "Position 6" from the Chess Programming Wiki
+        var board = ChessBoard.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        assertPerft(board, TeamColor.WHITE, 46, 2079, 89890);
+    }
+
+    @Test
+    @DisplayName("Game and Board Agree")
+    public void gameAdapter() {
+        var game = new ChessGame();
+        Assertions.assertEquals(8902, perft.perft(game, 3));
+
+        long divided = perft.divide(game.getBoard(), game.getPlayerTurn(), 3).values().stream()
+                .mapToLong(Long::longValue).sum();
+        Assertions.assertEquals(8902, divided, "divide did not add up to the perft count");
+    }
+
+    @Test
+    @DisplayName("Board Restored")
+    public void boardRestored() {
+        var game = new ChessGame();
+        perft.perft(game, 4);
+
+        var expected = new ChessBoard();
+        expected.resetBoard();
+        Assertions.assertEquals(expected, game.getBoard(), "perft left the board changed");
+        Assertions.assertEquals(expected.getZobristKey(), game.getBoard().getZobristKey(),
+                "perft left the castling rights or en passant square changed");
+    }
+
+    @Test
+    @DisplayName("Unmake Restores State")
+    public void unmakeRestoresState() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        board.setHalfmoveClock(7);
+        // Clear f1 and g1 so white can castle kingside
+        board.removePiece(new ChessPosition(1, 6));
+        board.removePiece(new ChessPosition(1, 7));
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        int count = new ChessRules().validMoves(board, 4, moves, 0);
+        int castle = PackedMove.NONE;
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.isCastle(moves[i])) castle = moves[i];
+        }
+        Assertions.assertNotEquals(PackedMove.NONE, castle, "no castling move generated");
+
+        long key = board.getZobristKey();
+        board.makeMove(castle);
+        Assertions.assertEquals(ChessPiece.PieceType.ROOK, board.getPiece(new ChessPosition(1, 6)).getPieceType());
+        Assertions.assertEquals(ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE, board.getCastlingRights());
+        Assertions.assertEquals(8, board.getHalfmoveClock());
+
+        board.unmakeMove();
+        Assertions.assertEquals(ChessBoard.ALL_CASTLING_RIGHTS, board.getCastlingRights());
+        Assertions.assertEquals(7, board.getHalfmoveClock());
+        Assertions.assertEquals(ChessPiece.PieceType.ROOK, board.getPiece(new ChessPosition(1, 8)).getPieceType());
+        Assertions.assertEquals(key, board.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("En Passant Only for the Side to Move")
+    public void enPassantSideToMove() {
+        // Black may take e3 en passant; white's d2 pawn also touches e3 but must not take its own skipped square
+        var board = ChessBoard.fromFen("4k3/8/8/8/3pP3/8/3P4/4K3 b - e3 0 1");
+        var rules = new ChessRules();
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        int count = rules.validMoves(board, new ChessPosition(2, 4).getSquare(), moves, 0);
+        for (int i = 0; i < count; i++) {
+            Assertions.assertFalse(PackedMove.isEnPassant(moves[i]), "white pawn took its own en passant square");
+        }
+
+        count = rules.validMoves(board, new ChessPosition(4, 4).getSquare(), moves, 0);
+        int enPassant = 0;
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.isEnPassant(moves[i])) enPassant++;
+        }
+        Assertions.assertEquals(1, enPassant, "black's en passant capture missing");
+        assertPerft(board, TeamColor.BLACK, 7, 40);
+    }
+
+    @Test
+    @DisplayName("Parallel Perft")
+    public void parallelPerft() {
+        var board = new ChessBoard();
+        board.resetBoard();
+
+        // Split all the way down to the last ply to exercise the task splitting
+        var evaluator = new ParallelEvaluator(new ForkJoinPool(4), 1);
+        Assertions.assertEquals(197281, evaluator.perft(board, TeamColor.WHITE, 4));
+
+        var expected = new ChessBoard();
+        expected.resetBoard();
+        Assertions.assertEquals(expected, board, "parallel perft changed the caller's board");
+    }
+
+    @Test
+    @DisplayName("Parallel Evaluate")
+    public void parallelEvaluate() {
+        var games = List.of(new ChessGame(), new ChessGame(), new ChessGame());
+        games.get(1).setPlayerTurn(TeamColor.BLACK);
+        games.get(2).getBoard().removePiece(new ChessPosition(2, 5));
+
+        List<Long> counts = new ParallelEvaluator().evaluate(games, (board, side) -> new Perft().perft(board, side, 2));
+        for (int i = 0; i < games.size(); i++) {
+            Assertions.assertEquals(perft.perft(games.get(i), 2), (long) counts.get(i), "Wrong result for game " + i);
+        }
+    }
+
+    private void assertPerft(ChessBoard board, TeamColor team, long... expectedCounts) {
+        for (int depth = 1; depth <= expectedCounts.length; depth++) {
+            Assertions.assertEquals(expectedCounts[depth - 1], perft.perft(board, team, depth),
+                    "Wrong perft count at depth " + depth);
+        }
+    }
+}
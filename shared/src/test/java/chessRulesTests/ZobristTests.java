@@ -0,0 +1,113 @@
+package chessRulesTests;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.chessRules.ChessRules;
+import chess.chessRules.MoveNotation;
+import chess.chessRules.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Checks that the incrementally updated Zobrist keys match keys computed from scratch.
+ */
+public class ZobristTests {
+
+    @Test
+    @DisplayName("Incremental Key Matches Rebuilt Key")
+    public void incrementalMatchesRebuilt() {
+        var rules = new ChessRules();
+        var board = new ChessBoard();
+        board.resetBoard();
+        var random = new Random(7);
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        TeamColor team = TeamColor.WHITE;
+
+        int made = 0;
+        for (int ply = 0; ply < 200; ply++) {
+            int count = rules.validMoves(board, team, moves, 0);
+            if (count == 0) break;
+            board.makeMove(moves[random.nextInt(count)]);
+            made++;
+            team = team.opponent();
+            Assertions.assertEquals(rebuilt(board).getZobristKey(), board.getZobristKey(), "Key drifted at ply " + ply);
+        }
+
+        for (; made > 0; made--) {
+            board.unmakeMove();
+            Assertions.assertEquals(rebuilt(board).getZobristKey(), board.getZobristKey(), "Key wrong after unmake");
+        }
+    }
+
+    @Test
+    @DisplayName("Transpositions Share a Key")
+    public void transpositions() throws Exception {
+        var first = new ChessGame();
+        first.makeMove(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null));
+        first.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+        first.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+
+        var second = new ChessGame();
+        second.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        second.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+        second.makeMove(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null));
+
+        Assertions.assertEquals(first.getZobristKey(), second.getZobristKey());
+        Assertions.assertNotEquals(new ChessGame().getZobristKey(), first.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Side to Move Changes the Key")
+    public void sideToMove() {
+        var white = new ChessGame();
+        var black = new ChessGame();
+        black.setPlayerTurn(TeamColor.BLACK);
+
+        Assertions.assertEquals(white.getBoard().getZobristKey(), black.getBoard().getZobristKey());
+        Assertions.assertNotEquals(white.getZobristKey(), black.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Matches Polyglot's Keys")
+    public void polyglotKeys() throws Exception {
+        // Keys from the Polyglot book format description
+        Assertions.assertEquals(0x463B96181691FC9CL, keyAfter());
+        Assertions.assertEquals(0x823C9B50FD114196L, keyAfter("e2e4"));
+        Assertions.assertEquals(0x0756B94461C50FB0L, keyAfter("e2e4", "d7d5"));
+        Assertions.assertEquals(0x662FAFB965DB29D4L, keyAfter("e2e4", "d7d5", "e4e5"));
+        Assertions.assertEquals(0x22A48B5A8E47FF78L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5"));
+        Assertions.assertEquals(0x652A607CA3F242C1L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5", "e1e2"));
+        Assertions.assertEquals(0x00FDD303C946BDD9L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"));
+        Assertions.assertEquals(0x3C8123EA7B067637L, keyAfter("a2a4", "b7b5", "h2h4", "b5b4", "c2c4"));
+        Assertions.assertEquals(0x5C3F9B829B279560L, keyAfter("a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a3"));
+
+        // A position set up from its FEN gets the same key as when reached by moves
+        Assertions.assertEquals(0x22A48B5A8E47FF78L,
+                ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3").getZobristKey());
+    }
+
+    private static long keyAfter(String... moves) throws Exception {
+        var game = new ChessGame();
+        var notation = new MoveNotation();
+        for (String move : moves) {
+            game.makeMove(PackedMove.toChessMove(notation.parseUci(move, game.getBoard(), game.getPlayerTurn())));
+        }
+        return game.getZobristKey();
+    }
+
+    private static ChessBoard rebuilt(ChessBoard board) {
+        var copy = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            copy.addPiece(square, board.getPiece(square));
+        }
+        copy.setCastlingRights(board.getCastlingRights());
+        copy.setEnPassantSquare(board.getEnPassantSquare());
+        return copy;
+    }
+}
@@ -0,0 +1,211 @@
+package engineTests;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.GameStatus;
+import chess.ChessGame.TeamColor;
+import chess.bitbase.Bitbase.Result;
+import chess.bitbase.Bitbases;
+import chess.bitbase.Ending;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static passoffTests.TestFactory.loadBoard;
+
+public class BitbaseTests {
+    private static Bitbases bitbases;
+
+    @BeforeAll
+    public static void generate() {
+        bitbases = Bitbases.generate();
+    }
+
+    @Test
+    @DisplayName("Queen and Rook Endings")
+    public void majorPieceEndings() {
+        var queen = loadBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |Q| | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        Assertions.assertEquals(Ending.KQK, Ending.of(queen));
+        Assertions.assertEquals(Result.WIN, bitbases.probe(queen, TeamColor.WHITE));
+        Assertions.assertEquals(Result.LOSS, bitbases.probe(queen, TeamColor.BLACK));
+
+        // Black, in check, takes the undefended Rook
+        var hangingRook = loadBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |k| | | |
+                | | | | |R| | | |
+                |K| | | | | | | |
+                """);
+        Assertions.assertEquals(Result.DRAW, bitbases.probe(hangingRook, TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Stalemate Is a Draw")
+    public void stalemate() {
+        var board = loadBoard("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | |Q| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        Assertions.assertEquals(Result.DRAW, bitbases.probe(board, TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Pawn Endings")
+    public void pawnEndings() {
+        // King on the sixth rank in front of its pawn wins whoever is to move
+        var win = loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """);
+        Assertions.assertEquals(Result.WIN, bitbases.probe(win, TeamColor.WHITE));
+        Assertions.assertEquals(Result.LOSS, bitbases.probe(win, TeamColor.BLACK));
+
+        // A rook pawn can't win against a King in its corner
+        var draw = loadBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |K|P|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """);
+        Assertions.assertEquals(Result.DRAW, bitbases.probe(draw, TeamColor.WHITE));
+        Assertions.assertEquals(Result.DRAW, bitbases.probe(draw, TeamColor.BLACK));
+
+        // The same win with the colours swapped and the board turned over
+        var black = loadBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | | | | | | |
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        Assertions.assertEquals(Result.WIN, bitbases.probe(black, TeamColor.BLACK));
+        Assertions.assertEquals(Result.LOSS, bitbases.probe(black, TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Other Material Not Covered")
+    public void notCovered() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertNull(Ending.of(board));
+        Assertions.assertNull(bitbases.probe(board, TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Files Round Trip")
+    public void filesRoundTrip() throws IOException {
+        Path directory = Files.createTempDirectory("bitbases");
+        try {
+            Bitbases written = Bitbases.open(directory);
+            Bitbases mapped = Bitbases.open(directory);
+            for (Ending ending : Ending.values()) {
+                Assertions.assertEquals(64 * 1024, Files.size(directory.resolve(ending.fileName())));
+                Assertions.assertEquals(bitbases.get(ending).countWins(), written.get(ending).countWins());
+                Assertions.assertEquals(bitbases.get(ending).countWins(), mapped.get(ending).countWins());
+            }
+        } finally {
+            for (Ending ending : Ending.values()) Files.deleteIfExists(directory.resolve(ending.fileName()));
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    @DisplayName("Game Status")
+    public void gameStatus() {
+        var game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |Q| | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        Assertions.assertEquals(GameStatus.NORMAL, game.getGameStatus());
+
+        game.setBitbases(bitbases);
+        game.setPlayerTurn(TeamColor.WHITE);
+        Assertions.assertEquals(GameStatus.KNOWN_WIN, game.getGameStatus());
+        game.setPlayerTurn(TeamColor.BLACK);
+        Assertions.assertEquals(GameStatus.KNOWN_LOSS, game.getGameStatus());
+        Assertions.assertTrue(game.getGameStatus().isGameOver());
+
+        // Once the fifty-move count has started, the win might not come in time
+        game.getBoard().setHalfmoveClock(1);
+        game.setPlayerTurn(TeamColor.WHITE);
+        Assertions.assertEquals(GameStatus.NORMAL, game.getGameStatus());
+        game.setPlayerTurn(TeamColor.BLACK);
+        Assertions.assertEquals(GameStatus.NORMAL, game.getGameStatus());
+
+        // The bitbases aren't saved with the game
+        game.getBoard().setHalfmoveClock(0);
+        var gson = new Gson();
+        var loaded = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(GameStatus.NORMAL, loaded.getGameStatus());
+        loaded.setBitbases(bitbases);
+        Assertions.assertEquals(GameStatus.KNOWN_LOSS, loaded.getGameStatus());
+    }
+
+    @Test
+    @DisplayName("Search Scores Known Endings")
+    public void search() {
+        var board = loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """);
+        var search = new Search();
+        search.setBitbases(bitbases);
+        SearchResult result = search.search(board, TeamColor.WHITE, SearchLimits.depth(4));
+        Assertions.assertTrue(result.score() > Search.KNOWN_WIN / 2, "score " + result.score());
+        Assertions.assertFalse(result.isMate());
+    }
+}
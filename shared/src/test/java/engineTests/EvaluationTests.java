@@ -0,0 +1,145 @@
+package engineTests;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.chessRules.ChessRules;
+import chess.chessRules.PackedMove;
+import chess.engine.Evaluator;
+import chess.engine.PawnHashTable;
+import chess.engine.PawnStructure;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Random;
+
+public class EvaluationTests {
+
+    @Test
+    @DisplayName("EPD Regression Positions")
+    public void epdRegression() throws IOException {
+        var stream = Objects.requireNonNull(getClass().getResourceAsStream("/evaluation.epd"));
+        int positions = 0;
+        try (var reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+
+                // <placement> <side> <castling> <en passant> ce <score>; id "<name>";
+                String[] fields = line.split(" ");
+                int expected = Integer.parseInt(fields[5].substring(0, fields[5].length() - 1));
+                String id = line.substring(line.indexOf("id \"") + 4, line.lastIndexOf('"'));
+                TeamColor side = fields[1].equals("w") ? TeamColor.WHITE : TeamColor.BLACK;
+
+                Assertions.assertEquals(expected, Evaluator.evaluate(loadPlacement(fields[0]), side), id);
+                positions++;
+            }
+        }
+        Assertions.assertTrue(positions > 0, "No positions read");
+    }
+
+    @Test
+    @DisplayName("Incremental Scores Match Rebuilt Scores")
+    public void incrementalMatchesRebuilt() {
+        var rules = new ChessRules();
+        var board = new ChessBoard();
+        board.resetBoard();
+        var random = new Random(11);
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        TeamColor team = TeamColor.WHITE;
+
+        for (int ply = 0; ply < 200; ply++) {
+            int count = rules.validMoves(board, team, moves, 0);
+            if (count == 0) break;
+            board.makeMove(moves[random.nextInt(count)]);
+            team = team.opponent();
+
+            var rebuilt = new ChessBoard();
+            for (int square = 0; square < 64; square++) rebuilt.addPiece(square, board.getPiece(square));
+            Assertions.assertEquals(rebuilt.getMiddlegameScore(), board.getMiddlegameScore(), "Ply " + ply);
+            Assertions.assertEquals(rebuilt.getEndgameScore(), board.getEndgameScore(), "Ply " + ply);
+            Assertions.assertEquals(rebuilt.getPhase(), board.getPhase(), "Ply " + ply);
+        }
+    }
+
+    @Test
+    @DisplayName("Pawn Structure Terms")
+    public void pawnStructure() {
+        // White: doubled, isolated, passed c-pawns on c3 and c4. Black: an isolated passed pawn on its 6th rank (a3)
+        int score = PawnStructure.evaluate(loadPlacement("4k3/8/8/8/2P5/p1P5/8/4K3"));
+        Assertions.assertEquals((-10 - 2 * 10 + 10 + 15) - (-10 + 40), PawnStructure.middlegame(score));
+        Assertions.assertEquals((-20 - 2 * 15 + 20 + 35) - (-15 + 100), PawnStructure.endgame(score));
+    }
+
+    @Test
+    @DisplayName("Pawn Hash Agrees With Direct Evaluation")
+    public void pawnHash() {
+        var rules = new ChessRules();
+        var board = new ChessBoard();
+        board.resetBoard();
+        var pawnTable = new PawnHashTable(64);
+        var random = new Random(5);
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        TeamColor team = TeamColor.WHITE;
+
+        for (int ply = 0; ply < 200; ply++) {
+            Assertions.assertEquals(Evaluator.evaluate(board, team), Evaluator.evaluate(board, team, pawnTable));
+            int count = rules.validMoves(board, team, moves, 0);
+            if (count == 0) break;
+            board.makeMove(moves[random.nextInt(count)]);
+            team = team.opponent();
+        }
+        Assertions.assertTrue(pawnTable.getHits() > 0, "Sibling positions should share pawn structures");
+    }
+
+    @Test
+    @DisplayName("Mirrored Position Scores the Same")
+    public void symmetry() {
+        var board = loadPlacement("r1b2rk1/2q1b1pp/p2ppn2/1p6/3QP3/1BN1B3/PPP3PP/R4RK1");
+
+        // Flip the board top to bottom and swap the colors
+        var mirrored = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece == null) continue;
+            mirrored.addPiece(square ^ 56, ChessPiece.of(piece.getTeamColor().opponent(), piece.getPieceType()));
+        }
+        Assertions.assertEquals(Evaluator.evaluate(board, TeamColor.WHITE), Evaluator.evaluate(mirrored, TeamColor.BLACK));
+    }
+
+    /**
+     * Reads the piece placement field of a FEN or EPD record
+     */
+    private static ChessBoard loadPlacement(String placement) {
+        var board = new ChessBoard();
+        int row = 8;
+        int column = 1;
+        for (char c : placement.toCharArray()) {
+            if (c == '/') {
+                row--;
+                column = 1;
+            } else if (Character.isDigit(c)) {
+                column += c - '0';
+            } else {
+                TeamColor color = Character.isUpperCase(c) ? TeamColor.WHITE : TeamColor.BLACK;
+                ChessPiece.PieceType type = switch (Character.toLowerCase(c)) {
+                    case 'k' -> ChessPiece.PieceType.KING;
+                    case 'q' -> ChessPiece.PieceType.QUEEN;
+                    case 'b' -> ChessPiece.PieceType.BISHOP;
+                    case 'n' -> ChessPiece.PieceType.KNIGHT;
+                    case 'r' -> ChessPiece.PieceType.ROOK;
+                    default -> ChessPiece.PieceType.PAWN;
+                };
+                board.addPiece(ChessPosition.of(row, column++), ChessPiece.of(color, type));
+            }
+        }
+        return board;
+    }
+}
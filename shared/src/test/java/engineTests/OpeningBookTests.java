@@ -0,0 +1,186 @@
+package engineTests;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+import chess.chessRules.LegalMoveGenerator;
+import chess.chessRules.PackedMove;
+import chess.engine.OpeningBook;
+import chess.engine.OpeningBookBuilder;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class OpeningBookTests {
+
+    @Test
+    @DisplayName("Most Played Move")
+    public void mostPlayedMove() throws Exception {
+        var builder = new OpeningBookBuilder();
+        for (int i = 0; i < 50; i++) builder.addGame(game(2, 5, 4, 5));  // e4
+        builder.addGame(game(2, 4, 4, 4));  // d4
+        // Plenty of other positions, so the lookup really has to search
+        addRandomGames(builder, 200);
+
+        OpeningBook book = writeAndOpen(builder);
+        Assertions.assertEquals(builder.size(), book.size());
+
+        int move = book.probe(new ChessGame());
+        Assertions.assertEquals(12, PackedMove.from(move));
+        Assertions.assertEquals(28, PackedMove.to(move));
+        Assertions.assertTrue((move & PackedMove.DOUBLE_PAWN_PUSH) != 0, "book move lost its flags");
+
+        var board = new ChessBoard();
+        board.resetBoard();
+        for (int i = 0; i < 20; i++) {
+            int randomMove = book.probe(board, TeamColor.WHITE, new Random(i));
+            Assertions.assertNotEquals(PackedMove.NONE, randomMove);
+        }
+    }
+
+    @Test
+    @DisplayName("Position Not in Book")
+    public void notInBook() throws Exception {
+        var builder = new OpeningBookBuilder();
+        builder.addGame(game(2, 5, 4, 5));
+        OpeningBook book = writeAndOpen(builder);
+
+        var game = game(2, 1, 3, 1);
+        Assertions.assertEquals(PackedMove.NONE, book.probe(game));
+        Assertions.assertEquals(PackedMove.NONE, book.probe(game.getBoard(), TeamColor.BLACK, new Random(1)));
+    }
+
+    @Test
+    @DisplayName("Replays Move History")
+    public void replaysMoveHistory() throws Exception {
+        var game = game(2, 5, 4, 5, 7, 5, 5, 5, 1, 7, 3, 6);
+        Assertions.assertEquals(3, game.getMoveHistory().length);
+
+        var builder = new OpeningBookBuilder();
+        builder.addGame(game);
+        OpeningBook book = writeAndOpen(builder);
+        Assertions.assertEquals(3, book.size());
+
+        // After 1. e4 e5 the book answers Nf3
+        var afterTwo = game(2, 5, 4, 5, 7, 5, 5, 5);
+        int move = book.probe(afterTwo);
+        Assertions.assertEquals(6, PackedMove.from(move));
+        Assertions.assertEquals(21, PackedMove.to(move));
+    }
+
+    @Test
+    @DisplayName("Skips Illegal Entries")
+    public void skipsIllegalEntries() throws IOException {
+        // A heavy entry for e2e5, which no pawn can play, next to a light one for e2e4
+        Path path = Files.createTempFile("book", ".bin");
+        path.toFile().deleteOnExit();
+        long key = new ChessGame().getZobristKey();
+        try (var out = new DataOutputStream(Files.newOutputStream(path))) {
+            for (int[] entry : new int[][]{{36 | (12 << 6), 0xFFFF}, {28 | (12 << 6), 1}}) {
+                out.writeLong(key);
+                out.writeShort(entry[0]);
+                out.writeShort(entry[1]);
+                out.writeInt(0);
+            }
+        }
+        OpeningBook book = OpeningBook.open(path);
+
+        var board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertEquals(28, PackedMove.to(book.probe(board, TeamColor.WHITE)));
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(28, PackedMove.to(book.probe(board, TeamColor.WHITE, new Random(i))));
+        }
+    }
+
+    @Test
+    @DisplayName("Long Move History Survives Saving")
+    public void longMoveHistory() throws Exception {
+        // Knights out and back five times: 20 moves
+        var game = new ChessGame();
+        for (int i = 0; i < 5; i++) {
+            game = replay(game, 1, 7, 3, 6, 8, 7, 6, 6, 3, 6, 1, 7, 6, 6, 8, 7);
+        }
+        int[] history = game.getMoveHistory();
+        Assertions.assertEquals(20, history.length);
+        Assertions.assertEquals(6, PackedMove.from(history[0]));
+        Assertions.assertEquals(62, PackedMove.to(history[19]));
+
+        var restored = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        Assertions.assertArrayEquals(history, restored.getMoveHistory());
+    }
+
+    @Test
+    @DisplayName("Castling Encoding")
+    public void castlingEncoding() {
+        // Polyglot writes O-O as e1h1 and O-O-O as e1a1
+        int kingside = PackedMove.of(4, 6, PackedMove.CASTLE);
+        int queenside = PackedMove.of(60, 58, PackedMove.CASTLE);
+        Assertions.assertEquals(7 | (4 << 6), OpeningBook.toPolyglot(kingside));
+        Assertions.assertEquals(56 | (60 << 6), OpeningBook.toPolyglot(queenside));
+        Assertions.assertEquals(63 | (54 << 6) | (4 << 12),
+                OpeningBook.toPolyglot(PackedMove.of(54, 63, PieceType.QUEEN, 0)));
+    }
+
+    @Test
+    @DisplayName("Rejects Truncated File")
+    public void rejectsTruncatedFile() throws IOException {
+        Path path = Files.createTempFile("book", ".bin");
+        try {
+            Files.write(path, new byte[17]);
+            Assertions.assertThrows(IOException.class, () -> OpeningBook.open(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * @param squares row and column of each move's start and end, in turn
+     */
+    private static ChessGame game(int... squares) throws Exception {
+        return replay(new ChessGame(), squares);
+    }
+
+    private static ChessGame replay(ChessGame game, int... squares) throws Exception {
+        for (int i = 0; i < squares.length; i += 4) {
+            game.makeMove(new ChessMove(new ChessPosition(squares[i], squares[i + 1]),
+                    new ChessPosition(squares[i + 2], squares[i + 3]), null));
+        }
+        return game;
+    }
+
+    private static void addRandomGames(OpeningBookBuilder builder, int games) {
+        var random = new Random(5);
+        int[] buffer = new int[PackedMove.MAX_MOVES];
+        for (int g = 0; g < games; g++) {
+            var board = new ChessBoard();
+            board.resetBoard();
+            TeamColor team = TeamColor.WHITE;
+            int[] moves = new int[12];
+            for (int ply = 0; ply < moves.length; ply++) {
+                int count = LegalMoveGenerator.generate(board, team, -1L, buffer, 0);
+                moves[ply] = buffer[random.nextInt(count)];
+                board.makeMove(moves[ply]);
+                team = team.opponent();
+            }
+            builder.addGame(moves);
+        }
+    }
+
+    private static OpeningBook writeAndOpen(OpeningBookBuilder builder) throws IOException {
+        Path path = Files.createTempFile("book", ".bin");
+        path.toFile().deleteOnExit();
+        builder.write(path);
+        return OpeningBook.open(path);
+    }
+}
@@ -0,0 +1,87 @@
+package engineTests;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static passoffTests.TestFactory.loadBoard;
+
+public class ParallelSearchTests {
+
+    @Test
+    @DisplayName("Agrees With Single Thread")
+    public void findsMate() {
+        var board = loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | |K| |
+                """);
+        SearchResult result;
+        try (var search = new ParallelSearch(new TranspositionTable(1))) {
+            // Eight threads, so some helpers also try moves in the other tie order
+            result = search.search(board, TeamColor.WHITE, SearchLimits.depth(4), 8);
+        }
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                result.bestChessMove());
+        Assertions.assertEquals(new Search().search(board, TeamColor.WHITE, SearchLimits.depth(4)).score(),
+                result.score());
+    }
+
+    @Test
+    @DisplayName("Helpers Stop With the Main Search")
+    public void helpersStop() {
+        var game = new ChessGame();
+        try (var search = new ParallelSearch(new TranspositionTable(4))) {
+            // Twice, so the second search reuses the helpers of the first
+            for (int run = 0; run < 2; run++) {
+                long start = System.nanoTime();
+                SearchResult result = search.search(game, SearchLimits.time(200), 3);
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                Assertions.assertNotNull(result.bestChessMove());
+                Assertions.assertTrue(elapsedMillis < 1000, "Search took " + elapsedMillis + " ms");
+            }
+        }
+
+        var expected = new ChessBoard();
+        expected.resetBoard();
+        Assertions.assertEquals(expected, game.getBoard());
+    }
+
+    @Test
+    @DisplayName("Table Aged Once per Search")
+    public void tableAgedOnce() {
+        var table = new TranspositionTable(1);
+        int age = table.getAge();
+        try (var search = new ParallelSearch(table)) {
+            search.search(new ChessGame(), SearchLimits.depth(5), 4);
+        }
+        Assertions.assertEquals(age + 1, table.getAge(), "helpers started searches of their own");
+        // Everything written by any thread belongs to this search
+        Assertions.assertTrue(table.getFillPermille() > 0, "fill " + table.getFillPermille());
+    }
+
+    @Test
+    @DisplayName("Closed Search Refuses to Run")
+    public void closed() {
+        var search = new ParallelSearch(new TranspositionTable(1));
+        search.search(new ChessGame(), SearchLimits.depth(2), 2);
+        search.close();
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> search.search(new ChessGame(), SearchLimits.depth(2), 2));
+    }
+}
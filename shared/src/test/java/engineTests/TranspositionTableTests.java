@@ -0,0 +1,100 @@
+package engineTests;
+
+import chess.chessRules.PackedMove;
+import chess.engine.Search;
+import chess.engine.TranspositionTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Store and Probe")
+    public void storeAndProbe() {
+        var table = new TranspositionTable(1);
+        Assertions.assertEquals(1024 * 1024 / 16, table.capacity());
+
+        int move = PackedMove.of(12, 28, PackedMove.DOUBLE_PAWN_PUSH);
+        table.store(0x1234_5678_9ABC_DEF0L, move, -250, 7, TranspositionTable.LOWER_BOUND);
+        long entry = table.probe(0x1234_5678_9ABC_DEF0L);
+        Assertions.assertEquals(move, TranspositionTable.move(entry));
+        Assertions.assertEquals(-250, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+
+        Assertions.assertEquals(0, table.probe(0x1234_5678_9ABC_DEF1L));
+        Assertions.assertEquals(2, table.getProbes());
+        Assertions.assertEquals(1, table.getHits());
+    }
+
+    @Test
+    @DisplayName("Mate Scores Are Ply Independent")
+    public void mateScores() {
+        int mateInThreeFromRoot = Search.MATE - 5;
+        int stored = TranspositionTable.toTableScore(mateInThreeFromRoot, 2);
+        Assertions.assertEquals(Search.MATE - 3, stored);
+        Assertions.assertEquals(Search.MATE - 7, TranspositionTable.fromTableScore(stored, 4));
+        Assertions.assertEquals(150, TranspositionTable.fromTableScore(TranspositionTable.toTableScore(150, 9), 3));
+    }
+
+    @Test
+    @DisplayName("Replacement Keeps Deep and Recent Entries")
+    public void replacement() {
+        // With one bucket of four entries, every key competes for the same slots
+        var table = new TranspositionTable(0);
+        Assertions.assertEquals(4, table.capacity());
+
+        table.store(1, PackedMove.NONE, 0, 10, TranspositionTable.EXACT);
+        table.store(2, PackedMove.NONE, 0, 2, TranspositionTable.EXACT);
+        table.store(3, PackedMove.NONE, 0, 9, TranspositionTable.EXACT);
+        table.store(4, PackedMove.NONE, 0, 8, TranspositionTable.EXACT);
+        table.store(5, PackedMove.NONE, 0, 6, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(2), "The shallowest entry should have been replaced");
+        Assertions.assertNotEquals(0, table.probe(1));
+        Assertions.assertEquals(1, table.getCollisions());
+
+        // Entries from earlier searches go before deeper entries from the current one
+        table.newSearch();
+        table.newSearch();
+        table.store(6, PackedMove.NONE, 0, 1, TranspositionTable.EXACT);
+        table.store(7, PackedMove.NONE, 0, 1, TranspositionTable.EXACT);
+        table.store(8, PackedMove.NONE, 0, 1, TranspositionTable.EXACT);
+        table.store(9, PackedMove.NONE, 0, 1, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(1));
+        Assertions.assertEquals(1000, table.getFillPermille());
+    }
+
+    @Test
+    @DisplayName("Concurrent Writers Never Produce Torn Entries")
+    public void concurrentWriters() throws InterruptedException {
+        var table = new TranspositionTable(0);
+        var torn = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                var random = new Random(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    // Every field is derived from the key, so a mixed-up entry is easy to spot
+                    long key = random.nextInt(64) + 1;
+                    if (random.nextBoolean()) {
+                        table.store(key, (int) key, (int) key * 3, (int) key, TranspositionTable.EXACT);
+                    } else {
+                        long entry = table.probe(key);
+                        if (entry != 0 && (TranspositionTable.move(entry) != key
+                                || TranspositionTable.score(entry) != key * 3 || TranspositionTable.depth(entry) != key)) {
+                            torn.set(true);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        Assertions.assertFalse(torn.get());
+    }
+}
@@ -0,0 +1,9 @@
+import uci.UciEngine;
+
+import java.io.IOException;
+
+public class Uci {
+    public static void main(String[] args) throws IOException {
+        new UciEngine(System.in, System.out).run();
+    }
+}
@@ -0,0 +1,299 @@
+package uci;
+
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.InvalidMoveException;
+import chess.chessRules.MoveNotation;
+import chess.chessRules.PackedMove;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Speaks the UCI protocol over a pair of streams, so tournament tools can play and measure the engine. Commands are
+ * read on the calling thread, and each search runs on a thread of its own that prints its progress and then its
+ * best move. The reader never waits on a search, so it can answer isready or pass on stop while the engine thinks.
+ * <p>
+ * Supported: uci, isready, ucinewgame, setoption (Hash, Threads), position (startpos or fen), go (depth, nodes,
+ * movetime, wtime, btime, winc, binc, movestogo, infinite), stop and quit. Anything else gets an "info string" and
+ * is ignored.
+ */
+public class UciEngine {
+
+    private static final String NAME = "240 Chess";
+    private static final int DEFAULT_HASH_MEGABYTES = 16;
+    private static final int MAX_HASH_MEGABYTES = 4096;
+    private static final int MAX_THREADS = 256;
+    // How many moves the remaining clock is shared between when the GUI doesn't say
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    // Kept back from the clock for reading the command and sending the answer
+    private static final long MOVE_OVERHEAD_MILLIS = 50;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private TranspositionTable table;
+    private ParallelSearch search;
+    private int threads = 1;
+    private ChessGame game = new ChessGame();
+    private final MoveNotation notation = new MoveNotation();
+
+    // The running (or last) search, and the signal a "go infinite" search waits for before giving its move
+    private Thread searchThread;
+    private CountDownLatch stopSignal;
+
+    public UciEngine(InputStream in, OutputStream out) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.out = new PrintStream(out, true, StandardCharsets.UTF_8);
+        newSearch(DEFAULT_HASH_MEGABYTES);
+    }
+
+    /**
+     * Reads and answers commands until quit or the end of the input
+     */
+    public void run() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!handle(line.trim())) break;
+        }
+        stopSearch();
+        search.close();
+    }
+
+    /**
+     * @return false once told to quit
+     */
+    private boolean handle(String line) {
+        if (line.isEmpty()) return true;
+        String[] tokens = line.split("\\s+");
+        try {
+            switch (tokens[0]) {
+                case "uci" -> {
+                    out.println("id name " + NAME);
+                    out.println("id author CS 240");
+                    out.println("option name Hash type spin default " + DEFAULT_HASH_MEGABYTES
+                            + " min 1 max " + MAX_HASH_MEGABYTES);
+                    out.println("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                    out.println("uciok");
+                }
+                case "isready" -> out.println("readyok");
+                case "ucinewgame" -> {
+                    stopSearch();
+                    table.clear();
+                    game = new ChessGame();
+                }
+                case "setoption" -> setOption(tokens);
+                case "position" -> setPosition(tokens);
+                case "go" -> go(tokens);
+                case "stop" -> stopSearch();
+                case "quit" -> {
+                    return false;
+                }
+                default -> out.println("info string Unknown command: " + tokens[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            out.println("info string " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the table and the search, closing the old search so its helper threads end. Call with no search
+     * running.
+     */
+    private void newSearch(int hashMegabytes) {
+        if (search != null) search.close();
+        table = new TranspositionTable(hashMegabytes);
+        search = new ParallelSearch(table);
+        search.setListener(this::printInfo);
+    }
+
+    private void setOption(String[] tokens) {
+        int valueIndex = indexOf(tokens, "value");
+        if (tokens.length < 3 || !tokens[1].equals("name") || valueIndex < 3) {
+            throw new IllegalArgumentException("Expected setoption name <id> value <x>");
+        }
+        String name = String.join(" ", Arrays.copyOfRange(tokens, 2, valueIndex));
+        int value = Integer.parseInt(argument(tokens, valueIndex));
+
+        stopSearch();
+        if (name.equalsIgnoreCase("Hash")) {
+            newSearch(Math.max(1, Math.min(value, MAX_HASH_MEGABYTES)));
+        } else if (name.equalsIgnoreCase("Threads")) {
+            threads = Math.max(1, Math.min(value, MAX_THREADS));
+        } else {
+            throw new IllegalArgumentException("Unknown option: " + name);
+        }
+    }
+
+    /**
+     * position startpos [moves ...] or position fen <fen> [moves ...]
+     */
+    private void setPosition(String[] tokens) {
+        int movesIndex = indexOf(tokens, "moves");
+        int fenEnd = movesIndex > 0 ? movesIndex : tokens.length;
+        ChessGame position;
+        if (tokens.length >= 2 && tokens[1].equals("startpos")) {
+            position = new ChessGame();
+        } else if (tokens.length >= 3 && tokens[1].equals("fen")) {
+            position = ChessGame.fromFen(String.join(" ", Arrays.copyOfRange(tokens, 2, fenEnd)));
+        } else {
+            throw new IllegalArgumentException("Expected position startpos or position fen <fen>");
+        }
+        if (movesIndex > 0) {
+            for (int i = movesIndex + 1; i < tokens.length; i++) {
+                int move = notation.parseUci(tokens[i], position.getBoard(), position.getPlayerTurn());
+                if (move == PackedMove.NONE) throw new IllegalArgumentException("Illegal move " + tokens[i]);
+                try {
+                    position.makeMove(PackedMove.toChessMove(move));
+                } catch (InvalidMoveException e) {
+                    throw new IllegalStateException("A legal move was refused: " + tokens[i], e);
+                }
+            }
+        }
+        stopSearch();
+        game = position;
+    }
+
+    private void go(String[] tokens) {
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        long whiteTime = 0;
+        long blackTime = 0;
+        long whiteIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        boolean infinite = false;
+        for (int i = 1; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "depth" -> depth = Integer.parseInt(argument(tokens, i++));
+                case "nodes" -> nodes = Long.parseLong(argument(tokens, i++));
+                case "movetime" -> moveTime = Long.parseLong(argument(tokens, i++));
+                case "wtime" -> whiteTime = Long.parseLong(argument(tokens, i++));
+                case "btime" -> blackTime = Long.parseLong(argument(tokens, i++));
+                case "winc" -> whiteIncrement = Long.parseLong(argument(tokens, i++));
+                case "binc" -> blackIncrement = Long.parseLong(argument(tokens, i++));
+                case "movestogo" -> movesToGo = Integer.parseInt(argument(tokens, i++));
+                case "infinite" -> infinite = true;
+                default -> {
+                    // ponder, searchmoves and mate are not supported, and their arguments end up here too
+                }
+            }
+        }
+
+        boolean white = game.getPlayerTurn() == TeamColor.WHITE;
+        long clock = white ? whiteTime : blackTime;
+        if (moveTime == 0 && clock > 0) {
+            long increment = white ? whiteIncrement : blackIncrement;
+            int moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+            moveTime = Math.max(1, Math.min(clock / moves + increment, clock - MOVE_OVERHEAD_MILLIS));
+        }
+        SearchLimits limits = infinite ? new SearchLimits(0, 0, 0) : new SearchLimits(depth, moveTime, nodes);
+
+        stopSearch();
+        startSearch(limits, infinite);
+    }
+
+    private void startSearch(SearchLimits limits, boolean waitForStop) {
+        // Captured so a later command can replace the fields without touching this search
+        ChessGame position = game;
+        ParallelSearch searcher = search;
+        int threadCount = threads;
+        CountDownLatch stop = new CountDownLatch(1);
+
+        stopSignal = stop;
+        searchThread = new Thread(() -> {
+            SearchResult result = searcher.search(position, limits, threadCount);
+            // UCI holds the move of an infinite search until stop, even if the search ran out of depth first
+            if (waitForStop) awaitStop(stop);
+            int bestMove = result.bestMove();
+            out.println("bestmove " + (bestMove == PackedMove.NONE ? "0000" : MoveNotation.toUci(bestMove)));
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    /**
+     * Ends the running search, if any, and waits until it has printed its move
+     */
+    private void stopSearch() {
+        if (searchThread == null) return;
+        stopSignal.countDown();
+        // A stop that comes before the search has started is forgotten when it starts, so keep asking until it ends,
+        // even if interrupted: returning while it runs would let the next search start beside it. The interrupt is
+        // passed on once it has.
+        boolean interrupted = false;
+        while (searchThread.isAlive()) {
+            search.stop();
+            try {
+                searchThread.join(1);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        searchThread = null;
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static void awaitStop(CountDownLatch stop) {
+        while (true) {
+            try {
+                stop.await();
+                return;
+            } catch (InterruptedException e) {
+                // Only stop ends the wait
+            }
+        }
+    }
+
+    private void printInfo(SearchResult result) {
+        StringBuilder line = new StringBuilder("info depth ").append(result.depth());
+        if (result.isMate()) {
+            int movesToMate = (Search.MATE - Math.abs(result.score()) + 1) / 2;
+            line.append(" score mate ").append(result.score() > 0 ? movesToMate : -movesToMate);
+        } else {
+            line.append(" score cp ").append(result.score());
+        }
+        line.append(" nodes ").append(result.nodes())
+                .append(" nps ").append(result.nodesPerSecond())
+                .append(" time ").append(result.elapsedNanos() / 1_000_000)
+                .append(" hashfull ").append(result.hashFull())
+                .append(" pv");
+        for (int move : result.pv()) {
+            line.append(' ');
+            MoveNotation.appendUci(move, line);
+        }
+        out.println(line);
+        // UCI has no field for the pawn hash table, so its hit rate goes in a line of its own
+        int pawnHashHits = result.pawnHashHits();
+        out.println("info string pawn hash hits " + pawnHashHits / 10 + "." + pawnHashHits % 10 + "%");
+    }
+
+    private static int indexOf(String[] tokens, String token) {
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].equals(token)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the token after the named one
+     */
+    private static String argument(String[] tokens, int nameIndex) {
+        if (nameIndex + 1 >= tokens.length) {
+            throw new IllegalArgumentException("Missing value for " + tokens[nameIndex]);
+        }
+        return tokens[nameIndex + 1];
+    }
+}
@@ -0,0 +1,187 @@
+package uciTests;
+
+import chess.ChessGame;
+import chess.chessRules.MoveNotation;
+import chess.chessRules.PackedMove;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uci.UciEngine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the engine through its streams as a GUI would: commands are written to its input one at a time, and its
+ * output is read back line by line, waiting for the answer to each command.
+ */
+public class UciEngineTests {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private PipedOutputStream commands;
+    private Thread engineThread;
+
+    @BeforeEach
+    public void startEngine() throws IOException {
+        var input = new PipedInputStream();
+        commands = new PipedOutputStream(input);
+        var engine = new UciEngine(input, new LineCollector(lines));
+        engineThread = new Thread(() -> {
+            try {
+                engine.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "uci-engine");
+        engineThread.start();
+    }
+
+    @AfterEach
+    public void quit() throws Exception {
+        send("quit");
+        engineThread.join(TIMEOUT_MILLIS);
+        Assertions.assertFalse(engineThread.isAlive(), "The engine did not quit");
+    }
+
+    @Test
+    @DisplayName("Handshake")
+    public void handshake() throws Exception {
+        send("uci");
+        Assertions.assertTrue(awaitLine("id name").length() > "id name ".length());
+        awaitLine("uciok");
+        send("isready");
+        awaitLine("readyok");
+    }
+
+    @Test
+    @DisplayName("Start Position with Moves")
+    public void startPositionWithMoves() throws Exception {
+        send("position startpos moves e2e4 e7e5");
+        send("go depth 3");
+        assertLegal(bestMove(), ChessGame.fromFen("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2"));
+    }
+
+    @Test
+    @DisplayName("Position from FEN")
+    public void positionFromFen() throws Exception {
+        // Back rank mate in one
+        send("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        send("go depth 3");
+        Assertions.assertEquals("a1a8", bestMove());
+    }
+
+    @Test
+    @DisplayName("Time Controls")
+    public void timeControls() throws Exception {
+        var start = new ChessGame();
+        send("position startpos");
+        send("go movetime 100");
+        assertLegal(bestMove(), start);
+
+        send("go wtime 2000 btime 2000 winc 10 binc 10");
+        assertLegal(bestMove(), start);
+
+        send("go wtime 1000 btime 1000 movestogo 5");
+        assertLegal(bestMove(), start);
+    }
+
+    @Test
+    @DisplayName("Stop Ends an Infinite Search")
+    public void stopInfinite() throws Exception {
+        send("position startpos");
+        send("go infinite");
+        awaitLine("info depth 2");
+
+        // The move is held back until stop, however long that takes
+        send("isready");
+        String line;
+        do {
+            line = awaitLine("");
+            Assertions.assertFalse(line.startsWith("bestmove"), "Moved without stop");
+        } while (!line.equals("readyok"));
+
+        send("stop");
+        assertLegal(bestMove(), new ChessGame());
+    }
+
+    @Test
+    @DisplayName("Options Replace the Search")
+    public void options() throws Exception {
+        // Each Hash change replaces the search, so do it twice, and search with helpers afterwards
+        send("setoption name Hash value 1");
+        send("setoption name Hash value 2");
+        send("setoption name Threads value 3");
+        send("position startpos");
+        send("go depth 4");
+        assertLegal(bestMove(), new ChessGame());
+    }
+
+    @Test
+    @DisplayName("Illegal Move Reported")
+    public void illegalMove() throws Exception {
+        send("position startpos moves e2e5");
+        Assertions.assertTrue(awaitLine("info string").contains("e2e5"));
+        send("isready");
+        awaitLine("readyok");
+    }
+
+    private void send(String command) throws IOException {
+        commands.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+        commands.flush();
+    }
+
+    /**
+     * Skips output until a line starting with the prefix, and fails if none comes in time
+     */
+    private String awaitLine(String prefix) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            String line = lines.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            if (line == null) Assertions.fail("No \"" + prefix + "\" from the engine");
+            if (line.startsWith(prefix)) return line;
+        }
+    }
+
+    private String bestMove() throws InterruptedException {
+        return awaitLine("bestmove ").split(" ")[1];
+    }
+
+    private static void assertLegal(String move, ChessGame game) {
+        int parsed = new MoveNotation().parseUci(move, game.getBoard(), game.getPlayerTurn());
+        Assertions.assertNotEquals(PackedMove.NONE, parsed, move + " is not a legal move");
+    }
+
+    /**
+     * Passes each line written to it to a queue, without the line break
+     */
+    private static class LineCollector extends OutputStream {
+        private final BlockingQueue<String> lines;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        LineCollector(BlockingQueue<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (b == '\n') {
+                lines.add(line.toString(StandardCharsets.UTF_8).stripTrailing());
+                line.reset();
+            } else {
+                line.write(b);
+            }
+        }
+    }
+}